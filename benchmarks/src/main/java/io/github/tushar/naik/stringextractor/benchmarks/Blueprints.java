@@ -0,0 +1,50 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Blueprints (and sources that match them) shared by the benchmarks.
+ * Every blueprint has a distinct literal, so that a source matches exactly one of them.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+final class Blueprints {
+
+    private Blueprints() {
+    }
+
+    static List<String> generate(final int count, final boolean leadingLiteral) {
+        final List<String> blueprints = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            blueprints.add(leadingLiteral
+                           ? "service" + i + ".${{host:[a-z]+}}.cpu.${{core:[0-9]+}}"
+                           : "${{host:[a-z]+}}.service" + i + ".cpu.${{core:[0-9]+}}");
+        }
+        return blueprints;
+    }
+
+    /**
+     * @return a source that only matches the blueprint at the index (matches none, if the index is out of range)
+     */
+    static String source(final int index, final boolean leadingLiteral) {
+        return leadingLiteral
+               ? "service" + index + ".web.cpu.12"
+               : "web.service" + index + ".cpu.12";
+    }
+}
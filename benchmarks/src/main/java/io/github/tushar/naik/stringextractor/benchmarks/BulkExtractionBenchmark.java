@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor.benchmarks;
+
+import io.github.tushar.naik.stringextractor.BlueprintParseError;
+import io.github.tushar.naik.stringextractor.ExtractionResult;
+import io.github.tushar.naik.stringextractor.Extractor;
+import io.github.tushar.naik.stringextractor.ExtractorBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraction using sets of blueprints of different sizes, with sources that match blueprints at different positions
+ * in the set (or none of them), with each {@link Engine}. A result cache serves the repeated source from the cache, and
+ * a negative match filter short-circuits the repeated miss, so those measure the cost of a cache hit.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BulkExtractionBenchmark {
+
+    public enum HitPosition {
+        FIRST, MIDDLE, LAST, NONE
+    }
+
+    @Param({"10", "100", "1000", "10000"})
+    private int blueprintCount;
+
+    @Param
+    private HitPosition hitPosition;
+
+    /* blueprints that start with a literal can be dispatched on it, those that start with a variable can't */
+    @Param({"true", "false"})
+    private boolean leadingLiteral;
+
+    @Param
+    private Engine engine;
+
+    private Extractor extractor;
+    private String source;
+
+    @Setup
+    public void setup() throws BlueprintParseError {
+        extractor = engine.apply(ExtractorBuilder.newBuilder()
+                                         .blueprints(Blueprints.generate(blueprintCount, leadingLiteral)))
+                .build();
+        switch (hitPosition) {
+            case FIRST:
+                source = Blueprints.source(0, leadingLiteral);
+                break;
+            case MIDDLE:
+                source = Blueprints.source(blueprintCount / 2, leadingLiteral);
+                break;
+            case LAST:
+                source = Blueprints.source(blueprintCount - 1, leadingLiteral);
+                break;
+            default:
+                source = Blueprints.source(blueprintCount, leadingLiteral);
+                break;
+        }
+        if (extractor.extractFrom(source).isError() != (hitPosition == HitPosition.NONE)) {
+            throw new IllegalStateException("Unexpected extraction for: " + source);
+        }
+    }
+
+    @Benchmark
+    public ExtractionResult extract() {
+        return extractor.extractFrom(source);
+    }
+}
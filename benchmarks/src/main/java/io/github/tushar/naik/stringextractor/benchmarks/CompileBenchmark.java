@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor.benchmarks;
+
+import io.github.tushar.naik.stringextractor.BlueprintParseError;
+import io.github.tushar.naik.stringextractor.Extractor;
+import io.github.tushar.naik.stringextractor.ExtractorBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of compiling sets of blueprints into an extractor
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CompileBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int blueprintCount;
+
+    /* engines that change what is done while building */
+    @Param({"DEFAULT", "COMBINED_AUTOMATON", "CODEGEN", "LAZY_COMPILATION"})
+    private Engine engine;
+
+    private List<String> blueprints;
+
+    @Setup
+    public void setup() {
+        blueprints = Blueprints.generate(blueprintCount, true);
+    }
+
+    @Benchmark
+    public Extractor compile() throws BlueprintParseError {
+        return engine.apply(ExtractorBuilder.newBuilder()
+                                    .blueprints(blueprints))
+                .build();
+    }
+}
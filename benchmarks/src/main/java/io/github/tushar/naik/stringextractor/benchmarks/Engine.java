@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor.benchmarks;
+
+import io.github.tushar.naik.stringextractor.ExtractorBuilder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Builder options an extractor is benchmarked with, one at a time on top of the defaults.
+ * Options added after 1.4.0 are set reflectively, so that the module still compiles against 1.4.0, where only
+ * {@link #DEFAULT} can be run (the others fail in setup).
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+public enum Engine {
+    DEFAULT(null, null, null),
+    COMBINED_AUTOMATON("combinedAutomaton", boolean.class, true),
+    ADAPTIVE_ORDERING("adaptiveOrdering", boolean.class, true),
+    CODEGEN("withCodegen", null, null),
+    LAZY_COMPILATION("lazyCompilation", boolean.class, true),
+    RESULT_CACHE("withResultCache", int.class, 1 << 16),
+    NEGATIVE_MATCH_FILTER("withNegativeMatchFilter", int.class, 1 << 16);
+
+    private final String option;
+    private final Class<?> parameterType;
+    private final Object argument;
+
+    Engine(final String option, final Class<?> parameterType, final Object argument) {
+        this.option = option;
+        this.parameterType = parameterType;
+        this.argument = argument;
+    }
+
+    ExtractorBuilder apply(final ExtractorBuilder builder) {
+        if (option == null) {
+            return builder;
+        }
+        try {
+            if (parameterType == null) {
+                return (ExtractorBuilder) ExtractorBuilder.class.getMethod(option).invoke(builder);
+            }
+            final Method method = ExtractorBuilder.class.getMethod(option, parameterType);
+            return (ExtractorBuilder) method.invoke(builder, argument);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException(this + " isn't supported by this version of string-extractor", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not apply: " + this, e.getCause());
+        }
+    }
+}
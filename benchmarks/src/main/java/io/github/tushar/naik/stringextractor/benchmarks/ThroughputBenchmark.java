@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor.benchmarks;
+
+import io.github.tushar.naik.stringextractor.BlueprintParseError;
+import io.github.tushar.naik.stringextractor.ExtractionResult;
+import io.github.tushar.naik.stringextractor.Extractor;
+import io.github.tushar.naik.stringextractor.ExtractorBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a single extractor shared by many threads, compared against a single thread.
+ * Each thread cycles through its own sources, spread across the blueprints.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ThroughputBenchmark {
+    private static final int BLUEPRINTS = 1000;
+    private static final int SOURCES = 1024;
+
+    @Param
+    private Engine engine;
+
+    private Extractor extractor;
+
+    @State(Scope.Thread)
+    public static class Sources {
+        private final String[] sources = new String[SOURCES];
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            for (int i = 0; i < sources.length; i++) {
+                /* every fourth source misses */
+                sources[i] = Blueprints.source(i % 4 == 0 ? BLUEPRINTS + i : (i * 31) % BLUEPRINTS, true);
+            }
+        }
+
+        private String next() {
+            next = (next + 1) & (SOURCES - 1);
+            return sources[next];
+        }
+    }
+
+    @Setup
+    public void setup() throws BlueprintParseError {
+        extractor = engine.apply(ExtractorBuilder.newBuilder()
+                                         .blueprints(Blueprints.generate(BLUEPRINTS, true)))
+                .build();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ExtractionResult singleThread(final Sources sources) {
+        return extractor.extractFrom(sources.next());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public ExtractionResult allThreads(final Sources sources) {
+        return extractor.extractFrom(sources.next());
+    }
+}
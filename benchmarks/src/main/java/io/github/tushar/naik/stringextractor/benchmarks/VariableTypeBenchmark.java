@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor.benchmarks;
+
+import io.github.tushar.naik.stringextractor.BlueprintParseError;
+import io.github.tushar.naik.stringextractor.ExtractionResult;
+import io.github.tushar.naik.stringextractor.Extractor;
+import io.github.tushar.naik.stringextractor.ExtractorBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraction using a single blueprint, with one blueprint per kind of variable
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class VariableTypeBenchmark {
+
+    public enum VariableType {
+        EXACT_MATCH("org.${{company:apache}}.kafka.bytes", "org.apache.kafka.bytes"),
+        REGEX_MATCH("org.${{company:[a-z]+}}.kafka.bytes", "org.apache.kafka.bytes"),
+        DISCARDED_EXACT_MATCH("org.${{:apache}}.kafka.bytes", "org.apache.kafka.bytes"),
+        DISCARDED_REGEX_MATCH("org.${{:[a-z]+}}.kafka.bytes", "org.apache.kafka.bytes"),
+        SKIPPED("org.${{skip:[a-z]+}}.kafka.bytes", "org.apache.kafka.bytes"),
+        LAST("org.apache.${{rest}}", "org.apache.kafka.bytes"),
+        CONTEXT_MAPPED("org.${{ctx:company}}kafka.bytes", "org.kafka.bytes"),
+        STATIC_ATTACH("org.${{static:apache.}}kafka.bytes", "org.kafka.bytes");
+
+        private final String blueprint;
+        private final String source;
+
+        VariableType(final String blueprint, final String source) {
+            this.blueprint = blueprint;
+            this.source = source;
+        }
+    }
+
+    @Param
+    private VariableType variableType;
+
+    /* the other engines only apply to sets of blueprints, or to repeated sources */
+    @Param({"DEFAULT", "CODEGEN"})
+    private Engine engine;
+
+    private Extractor extractor;
+    private String source;
+    private Map<String, String> context;
+
+    @Setup
+    public void setup() throws BlueprintParseError {
+        extractor = engine.apply(ExtractorBuilder.newBuilder()
+                                         .blueprint(variableType.blueprint)
+                                         .withSkippedVariable("skip")
+                                         .withContextMappedVariable("ctx")
+                                         .withStaticAttachVariable("static"))
+                .build();
+        source = variableType.source;
+        context = Collections.singletonMap("company", "apache.");
+        if (extractor.extractFrom(source, context).isError()) {
+            throw new IllegalStateException("Source doesn't match: " + variableType);
+        }
+    }
+
+    @Benchmark
+    public ExtractionResult extract() {
+        return extractor.extractFrom(source, context);
+    }
+}
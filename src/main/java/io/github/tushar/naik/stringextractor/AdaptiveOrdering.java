@@ -0,0 +1,248 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.Value;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps track of how often each blueprint of a {@link BulkStringExtractor} wins, and periodically moves the hot
+ * blueprints ahead in the order in which blueprints are tried.
+ * <p>
+ * A blueprint is only ever moved ahead of blueprints that provably can't match any source it matches (see
+ * {@link #disjoint(int, int)}), so the relative order of blueprints that could both match a source is always the
+ * declared one, and the first declared blueprint that matches still wins.
+ * <p>
+ * Hits are counted in {@link LongAdder}s, so that counting doesn't contend between threads. Every new order is
+ * published as an immutable {@link Dispatch}, so readers never see a partially built order.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+class AdaptiveOrdering {
+    static final long DEFAULT_REORDER_INTERVAL_NANOS = 1_000_000_000L;
+
+    /* only these many of the hottest blueprints are moved during a reorder */
+    private static final int MAX_PROMOTIONS = 64;
+    /* reorders are only considered once in these many hits (has to be a power of two, minus one) */
+    private static final int SAMPLING_MASK = 1023;
+    private static final double DECAY = 0.5;
+
+    private final List<StringExtractor> stringExtractors;
+    private final List<List<Object>> tokens;
+    private final LongAdder[] hits;
+    /* decayed hit counts, only accessed by the thread that holds the reordering flag */
+    private final double[] scores;
+    private final long reorderIntervalNanos;
+    private final AtomicBoolean reordering = new AtomicBoolean();
+    private volatile long lastReorderNanos;
+    private volatile Dispatch dispatch;
+
+    /**
+     * @param stringExtractors     compiled blueprints, in declaration order
+     * @param reorderIntervalNanos minimum time between two reorders
+     */
+    AdaptiveOrdering(final List<StringExtractor> stringExtractors, final long reorderIntervalNanos) {
+        this.stringExtractors = stringExtractors;
+        this.tokens = stringExtractors.stream().map(AdaptiveOrdering::tokensOf).collect(Collectors.toList());
+        this.hits = new LongAdder[stringExtractors.size()];
+        for (int i = 0; i < hits.length; i++) {
+            hits[i] = new LongAdder();
+        }
+        this.scores = new double[stringExtractors.size()];
+        this.reorderIntervalNanos = reorderIntervalNanos;
+        this.lastReorderNanos = System.nanoTime();
+        this.dispatch = dispatchOf(IntStream.range(0, stringExtractors.size()).toArray());
+    }
+
+    /**
+     * @return the order in which blueprints are to be tried currently
+     */
+    Dispatch current() {
+        return dispatch;
+    }
+
+    /**
+     * Record a successful extraction, and reorder if it's time to
+     *
+     * @param blueprint index (in declaration order) of the blueprint that matched
+     */
+    void hit(final int blueprint) {
+        hits[blueprint].increment();
+        if ((ThreadLocalRandom.current().nextInt() & SAMPLING_MASK) == 0
+                && System.nanoTime() - lastReorderNanos >= reorderIntervalNanos) {
+            reorder();
+        }
+    }
+
+    /**
+     * Take over the hit counts of blueprints that were in the previous ordering too (compiled blueprints reused as
+     * they are, like across a {@link ReloadableExtractor#reload(List)}), and reorder right away, so that hot
+     * blueprints stay ahead instead of starting from the declared order again. Has to be called before this ordering
+     * is used.
+     *
+     * @param previous ordering to take hit counts over from
+     */
+    void carryOver(final AdaptiveOrdering previous) {
+        final Map<StringExtractor, Integer> previousIndices = new IdentityHashMap<>();
+        for (int i = 0; i < previous.stringExtractors.size(); i++) {
+            previousIndices.put(previous.stringExtractors.get(i), i);
+        }
+        /* the previous scores are only accessed by the thread that holds its reordering flag */
+        while (!previous.reordering.compareAndSet(false, true)) {
+            Thread.yield();
+        }
+        try {
+            for (int i = 0; i < scores.length; i++) {
+                final Integer index = previousIndices.get(stringExtractors.get(i));
+                if (index != null) {
+                    scores[i] = previous.scores[index] + previous.hits[index].sum();
+                }
+            }
+        } finally {
+            previous.reordering.set(false);
+        }
+        reorder();
+    }
+
+    /**
+     * Recompute the order from the hits seen so far. Does nothing if another thread is already reordering.
+     */
+    void reorder() {
+        if (!reordering.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = scores[i] * DECAY + hits[i].sumThenReset();
+            }
+            val hottest = IntStream.range(0, scores.length)
+                    .filter(i -> scores[i] > 0)
+                    .boxed()
+                    .sorted(Comparator.comparingDouble((Integer i) -> scores[i]).reversed())
+                    .limit(MAX_PROMOTIONS)
+                    .collect(Collectors.toList());
+
+            /* always start from the declared order, so that blueprints that cool down fall back to where they were */
+            val order = new ArrayList<Integer>(scores.length);
+            for (int i = 0; i < scores.length; i++) {
+                order.add(i);
+            }
+            for (final int blueprint : hottest) {
+                int position = order.indexOf(blueprint);
+                while (position > 0) {
+                    val previous = order.get(position - 1);
+                    if (scores[previous] >= scores[blueprint] || !disjoint(previous, blueprint)) {
+                        break;
+                    }
+                    order.set(position, previous);
+                    order.set(position - 1, blueprint);
+                    position--;
+                }
+            }
+            this.dispatch = dispatchOf(order.stream().mapToInt(Integer::intValue).toArray());
+            this.lastReorderNanos = System.nanoTime();
+        } finally {
+            reordering.set(false);
+        }
+    }
+
+    /**
+     * Two blueprints are disjoint if no source can be matched by both. This is (conservatively) the case when both
+     * consume the same literals and steps up to a point, where they then expect different characters. Since
+     * identical steps consume the same region of the source, both blueprints are at the same position there.
+     * <p>
+     * A blueprint that has been consumed fully, while the other still expects a character or a
+     * {@link Instruction#LAST} variable, is disjoint too, if it fails on string remaining after extraction.
+     */
+    boolean disjoint(final int first, final int second) {
+        val left = tokens.get(first);
+        val right = tokens.get(second);
+        final int common = Math.min(left.size(), right.size());
+        for (int i = 0; i < common; i++) {
+            val l = left.get(i);
+            val r = right.get(i);
+            if (l instanceof Character && r instanceof Character) {
+                if (!l.equals(r)) {
+                    return true;
+                }
+            } else if (!l.equals(r)) {
+                /* a regex may or may not match the character expected by the other */
+                return false;
+            }
+        }
+        if (left.size() == right.size()) {
+            return false;
+        }
+        if (left.size() < right.size()) {
+            return stringExtractors.get(first).isFailOnStringRemainingAfterExtraction()
+                    && needsMoreSource(right.get(common));
+        }
+        return stringExtractors.get(second).isFailOnStringRemainingAfterExtraction()
+                && needsMoreSource(left.get(common));
+    }
+
+    private static boolean needsMoreSource(final Object token) {
+        return token instanceof Character || ((StepKey) token).isLast();
+    }
+
+    private Dispatch dispatchOf(final int[] order) {
+        val leadingLiterals = Arrays.stream(order)
+                .mapToObj(blueprint -> stringExtractors.get(blueprint).leadingLiteral())
+                .collect(Collectors.toList());
+        return new Dispatch(new LeadingLiteralTrie(leadingLiterals), order);
+    }
+
+    /* consuming parts of the program: a Character per literal character, and a StepKey per step */
+    private static List<Object> tokensOf(final StringExtractor stringExtractor) {
+        val tokens = new ArrayList<Object>();
+        for (final Instruction instruction : stringExtractor.program()) {
+            if (instruction.isLiteral()) {
+                val operand = instruction.getOperand();
+                for (int i = 0; i < operand.length(); i++) {
+                    tokens.add(operand.charAt(i));
+                }
+                continue;
+            }
+            val stepKey = StepKey.of(instruction, stringExtractor.isAnchoredRegexMatching());
+            if (stepKey.isConsuming()) {
+                tokens.add(stepKey);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * An order in which blueprints are tried. The trie is built over ranks in this order, so candidates it returns
+     * are ranks, which map to blueprints via {@link #getOrder()}.
+     */
+    @Value
+    static class Dispatch {
+        LeadingLiteralTrie trie;
+        int[] order;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A read only {@link CharSequence} view over ASCII encoded bytes, so that bytes can be matched without decoding them.
+ * Only regions that are extracted get copied into Strings.
+ * <p>
+ * Bytes that aren't ASCII would need decoding (as UTF-8) to map to characters, so {@link #of(ByteBuffer)} decodes
+ * such sources into a String instead.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+final class AsciiByteSequence implements CharSequence {
+    private final ByteBuffer bytes;
+    private final int offset;
+    private final int length;
+
+    private AsciiByteSequence(final ByteBuffer bytes, final int offset, final int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @param source UTF-8 encoded bytes, between the position and the limit of the buffer (which are left untouched)
+     * @return a view over the bytes if all of them are ASCII, else the decoded String
+     */
+    static CharSequence of(final ByteBuffer source) {
+        final int from = source.position();
+        final int to = source.limit();
+        for (int i = from; i < to; i++) {
+            if (source.get(i) < 0) {
+                return StandardCharsets.UTF_8.decode(source.duplicate()).toString();
+            }
+        }
+        return new AsciiByteSequence(source, from, to - from);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        return (char) bytes.get(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+        }
+        return new AsciiByteSequence(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        /* ascii is a subset of latin-1, which Strings copy without any decoding */
+        if (bytes.hasArray()) {
+            return new String(bytes.array(), bytes.arrayOffset() + offset, length, StandardCharsets.ISO_8859_1);
+        }
+        final byte[] copy = new byte[length];
+        for (int i = 0; i < length; i++) {
+            copy[i] = bytes.get(offset + i);
+        }
+        return new String(copy, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Extracts from a batch of sources in parallel, using a {@link ForkJoinPool}.
+ * The batch is split in halves until each part is small enough to be extracted by a single worker, and results are
+ * written into their position in the batch, so they come back in the order of the sources.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+@UtilityClass
+class BatchExtraction {
+    /* batches smaller than this are not worth the cost of forking */
+    private static final int MIN_SPLIT_SIZE = 256;
+    /* parts per worker, so that workers that finish early can steal work */
+    private static final int PARTS_PER_WORKER = 8;
+
+    List<ExtractionResult> extractAll(final Extractor extractor, final List<String> sources, final int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism has to be positive, was: " + parallelism);
+        }
+        if (parallelism == 1 || sources.size() <= MIN_SPLIT_SIZE) {
+            return extractAll(extractor, sources, null);
+        }
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return extractAll(extractor, sources, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @param pool pool to extract in, extractions happen in the calling thread if this is null
+     */
+    List<ExtractionResult> extractAll(final Extractor extractor, final List<String> sources, final ForkJoinPool pool) {
+        /* random access is needed to split the batch */
+        final String[] batch = sources.toArray(new String[0]);
+        final ExtractionResult[] results = new ExtractionResult[batch.length];
+        if (pool == null || batch.length <= MIN_SPLIT_SIZE) {
+            new Extraction(extractor, batch, results, 0, batch.length, batch.length).compute();
+        } else {
+            final int splitSize = Math.max(MIN_SPLIT_SIZE,
+                                           batch.length / (pool.getParallelism() * PARTS_PER_WORKER));
+            pool.invoke(new Extraction(extractor, batch, results, 0, batch.length, splitSize));
+        }
+        return Arrays.asList(results);
+    }
+
+    private static class Extraction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Extractor extractor;
+        private final String[] sources;
+        private final ExtractionResult[] results;
+        private final int from;
+        private final int to;
+        private final int splitSize;
+
+        @SuppressWarnings("java:S107")
+        private Extraction(final Extractor extractor,
+                           final String[] sources,
+                           final ExtractionResult[] results,
+                           final int from,
+                           final int to,
+                           final int splitSize) {
+            this.extractor = extractor;
+            this.sources = sources;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.splitSize = splitSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= splitSize) {
+                for (int i = from; i < to; i++) {
+                    results[i] = extractor.extractFrom(sources[i]);
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new Extraction(extractor, sources, results, from, middle, splitSize),
+                      new Extraction(extractor, sources, results, middle, to, splitSize));
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compiles the programs of several blueprints into a single automaton, so that a source is matched against all of
+ * them in one pass.
+ * <p>
+ * The automaton is a tree, where every edge is either a literal (merged across blueprints, and dispatched on the
+ * next character of the source), or a step (a regex, last or non-consuming variable). Steps with the same matching
+ * behaviour are shared by all blueprints, so a regex that many blueprints have at the same position is evaluated only
+ * once. Since every step is deterministic given the cursor, each state is visited at most once per source.
+ * <p>
+ * Blueprints are accepted at the state their program ends in. Subtrees that only contain blueprints declared after
+ * the best match found so far are pruned, which keeps first-declared-match-wins semantics. The winner's result is
+ * built from the regions recorded by the steps on its path, without running its program again.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+class BlueprintAutomaton {
+    private static final int NONE = Integer.MAX_VALUE;
+
+    private final List<StringExtractor> stringExtractors;
+    private final State root;
+    private final int maxSteps;
+
+    BlueprintAutomaton(final List<StringExtractor> stringExtractors) {
+        this.stringExtractors = stringExtractors;
+        val builder = new StateBuilder();
+        int steps = 0;
+        for (int i = 0; i < stringExtractors.size(); i++) {
+            val stringExtractor = stringExtractors.get(i);
+            StateBuilder current = builder;
+            for (final Instruction instruction : stringExtractor.program()) {
+                if (instruction.isLiteral()) {
+                    val characters = instruction.getOperand();
+                    for (int j = 0; j < characters.length(); j++) {
+                        current = current.literals.computeIfAbsent(characters.charAt(j), k -> new StateBuilder());
+                    }
+                } else {
+                    val stepKey = StepKey.of(instruction, stringExtractor.isAnchoredRegexMatching());
+                    current.stepInstructions.putIfAbsent(stepKey, instruction);
+                    current = current.steps.computeIfAbsent(stepKey, k -> new StateBuilder());
+                }
+            }
+            current.accepting.add(i);
+            steps = Math.max(steps, stringExtractor.stepCount());
+        }
+        this.root = builder.build(stringExtractors);
+        this.maxSteps = steps;
+    }
+
+    /**
+     * @param source     source string
+     * @param contextMap map containing runtime context for replacements
+     * @return result of the first declared blueprint that matches the source, or {@link ExtractionResult#error()}
+     */
+    ExtractionResult extractFrom(final CharSequence source, final Map<String, String> contextMap) {
+        val search = new Search(source, maxSteps);
+        search.visit(root, 0, 0);
+        if (search.best == NONE) {
+            return ExtractionResult.error();
+        }
+        return stringExtractors.get(search.best).materialize(source, contextMap, search.bestSpans);
+    }
+
+    private static class State {
+        /* literal edges, compressed into strings and indexed by their first character */
+        private final char[] literalKeys;
+        private final String[] literals;
+        private final State[] literalTargets;
+
+        /* step edges, sorted by the first blueprint reachable through them */
+        private final Instruction[] steps;
+        private final boolean[] anchored;
+        private final State[] stepTargets;
+
+        /* blueprints whose program ends here, in declaration order */
+        private final int[] accepting;
+        private final boolean[] acceptingFailsOnRemaining;
+
+        /* first declared blueprint that can be reached from this state */
+        private final int first;
+
+        @SuppressWarnings("java:S107")
+        private State(final char[] literalKeys, final String[] literals, final State[] literalTargets,
+                      final Instruction[] steps, final boolean[] anchored, final State[] stepTargets,
+                      final int[] accepting, final boolean[] acceptingFailsOnRemaining, final int first) {
+            this.literalKeys = literalKeys;
+            this.literals = literals;
+            this.literalTargets = literalTargets;
+            this.steps = steps;
+            this.anchored = anchored;
+            this.stepTargets = stepTargets;
+            this.accepting = accepting;
+            this.acceptingFailsOnRemaining = acceptingFailsOnRemaining;
+            this.first = first;
+        }
+
+        private int literalEdge(final CharSequence source, final int cursor) {
+            if (cursor >= source.length() || literalKeys.length == 0) {
+                return -1;
+            }
+            val index = Arrays.binarySearch(literalKeys, source.charAt(cursor));
+            return index >= 0 && Utils.regionMatches(source, cursor, literals[index]) ? index : -1;
+        }
+    }
+
+    /**
+     * State of a single search over the automaton
+     */
+    private static class Search {
+        private final CharSequence source;
+        private final int[] spans;
+        private int best = NONE;
+        private int[] bestSpans;
+
+        private Search(final CharSequence source, final int maxSteps) {
+            this.source = source;
+            this.spans = new int[2 * maxSteps];
+        }
+
+        private void visit(State state, int cursor, final int depth) {
+            while (state.first < best) {
+                accept(state, cursor, depth);
+
+                val literal = state.literalEdge(source, cursor);
+                State literalTarget = literal < 0 ? null : state.literalTargets[literal];
+                for (int i = 0; i < state.steps.length; i++) {
+                    val target = state.stepTargets[i];
+                    if (literalTarget != null && literalTarget.first < target.first) {
+                        visit(literalTarget, cursor + state.literals[literal].length(), depth);
+                        literalTarget = null;
+                    }
+                    if (target.first >= best) {
+                        break;
+                    }
+                    val next = StringExtractor.matchStep(state.steps[i], source, cursor, state.anchored[i], spans,
+                                                         depth);
+                    if (next >= 0) {
+                        visit(target, next, depth + 1);
+                    }
+                }
+                if (literalTarget == null) {
+                    return;
+                }
+                /* continue along the literal edge without recursing */
+                cursor += state.literals[literal].length();
+                state = literalTarget;
+            }
+        }
+
+        private void accept(final State state, final int cursor, final int depth) {
+            for (int i = 0; i < state.accepting.length && state.accepting[i] < best; i++) {
+                if (!state.acceptingFailsOnRemaining[i] || cursor == source.length()) {
+                    best = state.accepting[i];
+                    bestSpans = Arrays.copyOf(spans, 2 * depth);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static class StateBuilder {
+        private final Map<Character, StateBuilder> literals = new TreeMap<>();
+        private final Map<StepKey, StateBuilder> steps = new LinkedHashMap<>();
+        private final List<Integer> accepting = new ArrayList<>();
+        /* the first instruction inserted for a step, is the one that is evaluated for all blueprints */
+        private final Map<StepKey, Instruction> stepInstructions = new LinkedHashMap<>();
+
+        private boolean isPassThrough() {
+            return literals.size() == 1 && steps.isEmpty() && accepting.isEmpty();
+        }
+
+        private State build(final List<StringExtractor> stringExtractors) {
+            int first = accepting.isEmpty() ? NONE : accepting.get(0);
+
+            val literalKeys = new char[literals.size()];
+            val literalLabels = new String[literals.size()];
+            val literalTargets = new State[literals.size()];
+            int index = 0;
+            for (final Map.Entry<Character, StateBuilder> entry : literals.entrySet()) {
+                /* compress chains of single characters into one literal edge */
+                val label = new StringBuilder().append(entry.getKey());
+                StateBuilder target = entry.getValue();
+                while (target.isPassThrough()) {
+                    val only = target.literals.entrySet().iterator().next();
+                    label.append(only.getKey());
+                    target = only.getValue();
+                }
+                literalKeys[index] = entry.getKey();
+                literalLabels[index] = label.toString();
+                literalTargets[index] = target.build(stringExtractors);
+                first = Math.min(first, literalTargets[index].first);
+                index++;
+            }
+
+            val stepKeys = new ArrayList<StepKey>(steps.keySet());
+            val builtTargets = new LinkedHashMap<StepKey, State>();
+            for (final StepKey stepKey : stepKeys) {
+                builtTargets.put(stepKey, steps.get(stepKey).build(stringExtractors));
+            }
+            stepKeys.sort(Comparator.comparingInt(stepKey -> builtTargets.get(stepKey).first));
+            val stepInstructionArray = new Instruction[stepKeys.size()];
+            val anchored = new boolean[stepKeys.size()];
+            val stepTargets = new State[stepKeys.size()];
+            for (int i = 0; i < stepKeys.size(); i++) {
+                val stepKey = stepKeys.get(i);
+                stepInstructionArray[i] = stepInstructions.get(stepKey);
+                anchored[i] = stepKey.isAnchored();
+                stepTargets[i] = builtTargets.get(stepKey);
+                first = Math.min(first, stepTargets[i].first);
+            }
+            return new State(literalKeys, literalLabels, literalTargets, stepInstructionArray, anchored,
+                             stepTargets, accepting.stream().mapToInt(Integer::intValue).toArray(),
+                             failsOnRemaining(stringExtractors), first);
+        }
+
+        private boolean[] failsOnRemaining(final List<StringExtractor> stringExtractors) {
+            val failsOnRemaining = new boolean[accepting.size()];
+            for (int i = 0; i < accepting.size(); i++) {
+                failsOnRemaining[i] = stringExtractors.get(accepting.get(i)).isFailOnStringRemainingAfterExtraction();
+            }
+            return failsOnRemaining;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.experimental.UtilityClass;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates a {@link GeneratedMatcher} class per blueprint, with the program unrolled into straight-line code.
+ * Literals (and their lengths) are baked in as constants, and every other step is inlined: regexes are matched through
+ * the blueprint's own matchers, held in final fields of the generated class, and spans are written at constant
+ * offsets. The JIT then sees one small method per blueprint, instead of a loop over instructions that behaves
+ * differently for every blueprint. Materializing a result is still interpreted.
+ * <p>
+ * Needs <a href="https://asm.ow2.io">ASM</a> on the classpath. On Java 15+, classes are defined as hidden classes in
+ * this package, which are unloaded once the extractor that uses them is garbage collected, so reloading blueprints
+ * doesn't leak classes. On Java 8 to 14, they are defined in the class loader of this package, and live as long as
+ * that loader does, which is why code generation is meant for a few hot blueprints there.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+@UtilityClass
+class BlueprintCodegen {
+    private static final String BASE = Type.getInternalName(GeneratedMatcher.class);
+    private static final String CHAR_SEQUENCE = Type.getInternalName(CharSequence.class);
+    private static final String UTILS = Type.getInternalName(Utils.class);
+    private static final String REUSABLE_MATCHER = Type.getInternalName(ReusableMatcher.class);
+    private static final String CHAR_CLASS_MATCHER = Type.getInternalName(CharClassMatcher.class);
+    private static final String PREFIX = Type.getInternalName(GeneratedMatcher.class) + "$Blueprint";
+    private static final AtomicLong COUNTER = new AtomicLong();
+    private static final ClassDefiner DEFINER = ClassDefiner.create();
+
+    /* locals of the generated match method */
+    private static final int THIS = 0;
+    private static final int SOURCE = 1;
+    private static final int SPANS = 2;
+    private static final int CURSOR = 3;
+
+    /**
+     * @return a matcher that behaves exactly like {@link StringExtractor#match(CharSequence, int[])} for the program,
+     * or null if classes can't be defined at runtime on this JVM (the program is then interpreted)
+     */
+    GeneratedMatcher generate(final Instruction[] program,
+                              final boolean anchoredRegexMatching,
+                              final boolean failOnStringRemainingAfterExtraction) {
+        if (DEFINER == null) {
+            return null;
+        }
+        final String name = PREFIX + COUNTER.incrementAndGet();
+        final List<Object> constants = new ArrayList<>();
+        final byte[] bytecode = generateClass(name, program, constants, anchoredRegexMatching,
+                                              failOnStringRemainingAfterExtraction);
+        try {
+            final Class<?> generated = DEFINER.define(name.replace('/', '.'), bytecode);
+            return (GeneratedMatcher) generated.getDeclaredConstructor(Object[].class)
+                    .newInstance((Object) constants.toArray());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not load generated matcher: " + name, e);
+        }
+    }
+
+    private byte[] generateClass(final String name,
+                                 final Instruction[] program,
+                                 final List<Object> constants,
+                                 final boolean anchoredRegexMatching,
+                                 final boolean failOnStringRemainingAfterExtraction) {
+        final ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        classWriter.visit(Opcodes.V1_8, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, name, null, BASE, null);
+
+        final MethodVisitor match = classWriter.visitMethod(0, "match", "(L" + CHAR_SEQUENCE + ";[I)Z", null, null);
+        match.visitCode();
+        match.visitInsn(Opcodes.ICONST_0);
+        match.visitVarInsn(Opcodes.ISTORE, CURSOR);
+        int step = 0;
+        for (final Instruction instruction : program) {
+            if (instruction.isLiteral()) {
+                literal(match, instruction.getOperand());
+                continue;
+            }
+            final int offset = 2 * step++;
+            switch (instruction.getOpcode()) {
+                case Instruction.REGEX_MATCH:
+                case Instruction.DISCARDED_REGEX_MATCH: {
+                    final CharClassMatcher charClass = instruction.getMatcher().getCharClass();
+                    final String field = "m" + constants.size();
+                    if (charClass != null) {
+                        constants.add(charClass);
+                        charClassStep(match, name, field, anchoredRegexMatching, offset);
+                    } else {
+                        constants.add(instruction.getMatcher());
+                        regexStep(match, name, field, anchoredRegexMatching, offset);
+                    }
+                    break;
+                }
+                case Instruction.LAST:
+                    lastStep(match, offset);
+                    break;
+                default:
+                    /* context mapped and static attach variables don't consume anything */
+                    span(match, offset, CURSOR);
+                    span(match, offset + 1, CURSOR);
+                    break;
+            }
+        }
+        if (failOnStringRemainingAfterExtraction) {
+            /* return cursor == source.length(); */
+            final Label remaining = new Label();
+            match.visitVarInsn(Opcodes.ILOAD, CURSOR);
+            sourceLength(match);
+            match.visitJumpInsn(Opcodes.IF_ICMPNE, remaining);
+            match.visitInsn(Opcodes.ICONST_1);
+            match.visitInsn(Opcodes.IRETURN);
+            match.visitLabel(remaining);
+            returnFalse(match);
+        } else {
+            match.visitInsn(Opcodes.ICONST_1);
+            match.visitInsn(Opcodes.IRETURN);
+        }
+        match.visitMaxs(0, 0);
+        match.visitEnd();
+
+        constructor(classWriter, name, constants);
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    /* fields m0, m1... hold the matchers, assigned from the array passed to the constructor */
+    private static void constructor(final ClassWriter classWriter, final String name, final List<Object> constants) {
+        final MethodVisitor constructor = classWriter.visitMethod(0, "<init>", "([Ljava/lang/Object;)V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, THIS);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, BASE, "<init>", "()V", false);
+        for (int i = 0; i < constants.size(); i++) {
+            final String type = constants.get(i) instanceof CharClassMatcher ? CHAR_CLASS_MATCHER : REUSABLE_MATCHER;
+            classWriter.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "m" + i, "L" + type + ";", null, null)
+                    .visitEnd();
+            constructor.visitVarInsn(Opcodes.ALOAD, THIS);
+            constructor.visitVarInsn(Opcodes.ALOAD, 1);
+            constructor.visitLdcInsn(i);
+            constructor.visitInsn(Opcodes.AALOAD);
+            constructor.visitTypeInsn(Opcodes.CHECKCAST, type);
+            constructor.visitFieldInsn(Opcodes.PUTFIELD, name, "m" + i, "L" + type + ";");
+        }
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+    }
+
+    /* if (!Utils.regionMatches(source, cursor, "...")) return false; cursor += length; */
+    private static void literal(final MethodVisitor match, final String literal) {
+        final Label matched = new Label();
+        match.visitVarInsn(Opcodes.ALOAD, SOURCE);
+        match.visitVarInsn(Opcodes.ILOAD, CURSOR);
+        match.visitLdcInsn(literal);
+        match.visitMethodInsn(Opcodes.INVOKESTATIC, UTILS, "regionMatches",
+                              "(L" + CHAR_SEQUENCE + ";ILjava/lang/String;)Z", false);
+        match.visitJumpInsn(Opcodes.IFNE, matched);
+        returnFalse(match);
+        match.visitLabel(matched);
+        match.visitIincInsn(CURSOR, literal.length());
+    }
+
+    /* if (!m.match(source, cursor, anchored, spans, offset)) return false; cursor += end - start; */
+    private static void charClassStep(final MethodVisitor match,
+                                      final String name,
+                                      final String field,
+                                      final boolean anchored,
+                                      final int offset) {
+        final Label matched = new Label();
+        match.visitVarInsn(Opcodes.ALOAD, THIS);
+        match.visitFieldInsn(Opcodes.GETFIELD, name, field, "L" + CHAR_CLASS_MATCHER + ";");
+        match.visitVarInsn(Opcodes.ALOAD, SOURCE);
+        match.visitVarInsn(Opcodes.ILOAD, CURSOR);
+        match.visitInsn(anchored ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+        match.visitVarInsn(Opcodes.ALOAD, SPANS);
+        match.visitLdcInsn(offset);
+        match.visitMethodInsn(Opcodes.INVOKEVIRTUAL, CHAR_CLASS_MATCHER, "match",
+                              "(L" + CHAR_SEQUENCE + ";IZ[II)Z", false);
+        match.visitJumpInsn(Opcodes.IFNE, matched);
+        returnFalse(match);
+        match.visitLabel(matched);
+        match.visitVarInsn(Opcodes.ILOAD, CURSOR);
+        spanAt(match, offset + 1);
+        match.visitInsn(Opcodes.IADD);
+        spanAt(match, offset);
+        match.visitInsn(Opcodes.ISUB);
+        match.visitVarInsn(Opcodes.ISTORE, CURSOR);
+    }
+
+    /* cursor = m.match(source, cursor, anchored, spans, offset); if (cursor < 0) return false; */
+    private static void regexStep(final MethodVisitor match,
+                                  final String name,
+                                  final String field,
+                                  final boolean anchored,
+                                  final int offset) {
+        final Label matched = new Label();
+        match.visitVarInsn(Opcodes.ALOAD, THIS);
+        match.visitFieldInsn(Opcodes.GETFIELD, name, field, "L" + REUSABLE_MATCHER + ";");
+        match.visitVarInsn(Opcodes.ALOAD, SOURCE);
+        match.visitVarInsn(Opcodes.ILOAD, CURSOR);
+        match.visitInsn(anchored ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+        match.visitVarInsn(Opcodes.ALOAD, SPANS);
+        match.visitLdcInsn(offset);
+        match.visitMethodInsn(Opcodes.INVOKEVIRTUAL, REUSABLE_MATCHER, "match",
+                              "(L" + CHAR_SEQUENCE + ";IZ[II)I", false);
+        match.visitInsn(Opcodes.DUP);
+        match.visitVarInsn(Opcodes.ISTORE, CURSOR);
+        match.visitJumpInsn(Opcodes.IFGE, matched);
+        returnFalse(match);
+        match.visitLabel(matched);
+    }
+
+    /* if (cursor >= source.length()) return false; spans[offset] = cursor; spans[offset + 1] = cursor = length; */
+    private static void lastStep(final MethodVisitor match, final int offset) {
+        final Label matched = new Label();
+        match.visitVarInsn(Opcodes.ILOAD, CURSOR);
+        sourceLength(match);
+        match.visitJumpInsn(Opcodes.IF_ICMPLT, matched);
+        returnFalse(match);
+        match.visitLabel(matched);
+        span(match, offset, CURSOR);
+        sourceLength(match);
+        match.visitVarInsn(Opcodes.ISTORE, CURSOR);
+        span(match, offset + 1, CURSOR);
+    }
+
+    /* spans[offset] = local; */
+    private static void span(final MethodVisitor match, final int offset, final int local) {
+        match.visitVarInsn(Opcodes.ALOAD, SPANS);
+        match.visitLdcInsn(offset);
+        match.visitVarInsn(Opcodes.ILOAD, local);
+        match.visitInsn(Opcodes.IASTORE);
+    }
+
+    /* pushes spans[offset] */
+    private static void spanAt(final MethodVisitor match, final int offset) {
+        match.visitVarInsn(Opcodes.ALOAD, SPANS);
+        match.visitLdcInsn(offset);
+        match.visitInsn(Opcodes.IALOAD);
+    }
+
+    private static void sourceLength(final MethodVisitor match) {
+        match.visitVarInsn(Opcodes.ALOAD, SOURCE);
+        match.visitMethodInsn(Opcodes.INVOKEINTERFACE, CHAR_SEQUENCE, "length", "()I", true);
+    }
+
+    private static void returnFalse(final MethodVisitor method) {
+        method.visitInsn(Opcodes.ICONST_0);
+        method.visitInsn(Opcodes.IRETURN);
+    }
+
+    /**
+     * Defines classes in this package, so that they can reach its package-private members
+     */
+    private interface ClassDefiner {
+        Class<?> define(String name, byte[] bytecode) throws ReflectiveOperationException;
+
+        /**
+         * @return a definer that uses {@code Lookup.defineHiddenClass} (Java 15+), else {@code Lookup.defineClass}
+         * (Java 9+), else {@code ClassLoader.defineClass} (Java 8), or null if none of them is accessible
+         */
+        static ClassDefiner create() {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            try {
+                /* not strongly linked to the class loader, so the class is unloaded once it is unreachable */
+                final Class<?> classOption = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+                final Method defineHiddenClass = MethodHandles.Lookup.class.getMethod(
+                        "defineHiddenClass", byte[].class, boolean.class, Array.newInstance(classOption, 0).getClass());
+                final Object noOptions = Array.newInstance(classOption, 0);
+                return (name, bytecode) -> ((MethodHandles.Lookup) defineHiddenClass.invoke(lookup, bytecode, true,
+                                                                                             noOptions)).lookupClass();
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                /* Java 8 to 14 */
+            }
+            try {
+                final Method defineClass = MethodHandles.Lookup.class.getMethod("defineClass", byte[].class);
+                return (name, bytecode) -> (Class<?>) defineClass.invoke(lookup, (Object) bytecode);
+            } catch (NoSuchMethodException e) {
+                /* Java 8 */
+            }
+            try {
+                final Method defineClass = ClassLoader.class.getDeclaredMethod("defineClass", String.class,
+                                                                               byte[].class, int.class, int.class);
+                defineClass.setAccessible(true);
+                final ClassLoader loader = GeneratedMatcher.class.getClassLoader();
+                return (name, bytecode) -> (Class<?>) defineClass.invoke(loader, name, bytecode, 0,
+                                                                          bytecode.length);
+            } catch (NoSuchMethodException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -22,9 +22,19 @@ import lombok.Getter;
 public class BlueprintParseError extends Exception {
     @Getter
     private final BlueprintParseErrorCode blueprintParseErrorCode;
+    /* the blueprint that couldn't be parsed, null if not known */
+    @Getter
+    private final String blueprint;
 
     public BlueprintParseError(final BlueprintParseErrorCode blueprintParseErrorCode) {
-        super(blueprintParseErrorCode.getErrorMessage());
+        this(blueprintParseErrorCode, null);
+    }
+
+    public BlueprintParseError(final BlueprintParseErrorCode blueprintParseErrorCode, final String blueprint) {
+        super(blueprint == null
+              ? blueprintParseErrorCode.getErrorMessage()
+              : blueprintParseErrorCode.getErrorMessage() + ", in blueprint: " + blueprint);
         this.blueprintParseErrorCode = blueprintParseErrorCode;
+        this.blueprint = blueprint;
     }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.Value;
+
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+
+/**
+ * A point in time snapshot of the metrics of a single blueprint, recorded by {@link ExtractionMetrics}
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+@Value
+public class BlueprintStats {
+    String blueprint;
+    /* number of sources this blueprint was tried on */
+    long attemptCount;
+    long hitCount;
+    long missCount;
+    /* misses, keyed by the component of the blueprint that failed to match, in blueprint order */
+    Map<String, Long> missesByComponent;
+    /* sampled latencies, where bucket i counts those in [2^i, 2^(i+1)) nanoseconds */
+    long[] latencyHistogram;
+
+    /**
+     * @return ratio of attempts that matched (0.0 if there haven't been any)
+     */
+    public double hitRate() {
+        return attemptCount == 0 ? 0.0 : (double) hitCount / attemptCount;
+    }
+
+    /**
+     * @return number of latencies sampled
+     */
+    public long latencySampleCount() {
+        return sampleCount(latencyHistogram.length, bucket -> latencyHistogram[bucket]);
+    }
+
+    /**
+     * @param percentile a value in [0, 100]
+     * @return upper bound (in nanoseconds) of the histogram bucket the percentile falls in, 0 if nothing was sampled
+     */
+    public long latencyPercentileNanos(final double percentile) {
+        return percentileNanos(latencyHistogram.length, bucket -> latencyHistogram[bucket], percentile);
+    }
+
+    /* shared with ExtractionMetrics, that reads the live buckets without taking a snapshot */
+    static long sampleCount(final int buckets, final IntToLongFunction histogram) {
+        long count = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            count += histogram.applyAsLong(bucket);
+        }
+        return count;
+    }
+
+    static long percentileNanos(final int buckets, final IntToLongFunction histogram, final double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile has to be in [0, 100], was: " + percentile);
+        }
+        final long count = sampleCount(buckets, histogram);
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            seen += histogram.applyAsLong(bucket);
+            if (seen >= rank) {
+                return bucket >= 62 ? Long.MAX_VALUE : 1L << (bucket + 1);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -18,17 +18,29 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * This class may be used for extracting from multiple blueprints.
  * Note: The first blueprint that matches with a successful extraction, will be returned as a result
+ * <p>
+ * By default, only blueprints whose leading literal is a prefix of the source are tried one after the other. For
+ * large sets of blueprints, all of them can instead be compiled into a single {@link BlueprintAutomaton}, that finds
+ * the winning blueprint in one pass over the source.
+ * <p>
+ * Optionally, blueprints that match most often can be tried first (see {@link AdaptiveOrdering}), without changing
+ * which blueprint wins for any source.
  *
  * @author tushar.naik
  * @since 1.0.0
  */
 public class BulkStringExtractor implements Extractor {
     private final List<StringExtractor> stringExtractors;
+    private final LeadingLiteralTrie leadingLiteralTrie;
+    private final BlueprintAutomaton automaton;
+    private final AdaptiveOrdering adaptiveOrdering;
+    /* null, unless metrics were asked for */
+    private final ExtractionMetrics metrics;
 
     @SuppressWarnings("java:S107")
     public BulkStringExtractor(final List<String> blueprints,
@@ -40,23 +52,64 @@ public class BulkStringExtractor implements Extractor {
                                final String skippedVariable,
                                final String contextMappedVariable,
                                final String staticAttachVariable) throws BlueprintParseError {
-        stringExtractors = new ArrayList<>();
-        for (final String blueprint : blueprints) {
-            stringExtractors.add(new StringExtractor(blueprint,
-                                                     variableStart,
-                                                     variablePrefix,
-                                                     regexSeparator,
-                                                     variableSuffix,
-                                                     failOnStringRemainingAfterExtraction,
-                                                     skippedVariable,
-                                                     contextMappedVariable,
-                                                     staticAttachVariable));
-        }
+        this(blueprints, variableStart, variablePrefix, regexSeparator, variableSuffix,
+             failOnStringRemainingAfterExtraction, skippedVariable, contextMappedVariable, staticAttachVariable, false);
+    }
+
+    @SuppressWarnings("java:S107")
+    public BulkStringExtractor(final List<String> blueprints,
+                               final char variableStart,
+                               final char variablePrefix,
+                               final char regexSeparator,
+                               final char variableSuffix,
+                               final boolean failOnStringRemainingAfterExtraction,
+                               final String skippedVariable,
+                               final String contextMappedVariable,
+                               final String staticAttachVariable,
+                               final boolean anchoredRegexMatching) throws BlueprintParseError {
+        this(compile(blueprints, variableStart, variablePrefix, regexSeparator, variableSuffix,
+                     failOnStringRemainingAfterExtraction, skippedVariable, contextMappedVariable,
+                     staticAttachVariable, anchoredRegexMatching),
+             false, false);
+    }
+
+    /**
+     * @param stringExtractors  compiled blueprints, in the order in which they are to be tried
+     * @param combinedAutomaton set this to true to match all blueprints together, using a {@link BlueprintAutomaton}
+     * @param adaptiveOrdering  set this to true to try blueprints that match often first (ignored when the combined
+     *                          automaton is used)
+     */
+    BulkStringExtractor(final List<StringExtractor> stringExtractors,
+                        final boolean combinedAutomaton,
+                        final boolean adaptiveOrdering) {
+        this(stringExtractors, combinedAutomaton, adaptiveOrdering, null);
+    }
+
+    /**
+     * @param metrics metrics to record per blueprint, already bound to the blueprints (nullable, ignored when the
+     *                combined automaton is used)
+     */
+    BulkStringExtractor(final List<StringExtractor> stringExtractors,
+                        final boolean combinedAutomaton,
+                        final boolean adaptiveOrdering,
+                        final ExtractionMetrics metrics) {
+        this.metrics = metrics;
+        this.stringExtractors = stringExtractors;
+        this.leadingLiteralTrie = new LeadingLiteralTrie(stringExtractors.stream()
+                                                                 .map(StringExtractor::leadingLiteral)
+                                                                 .collect(Collectors.toList()));
+        this.automaton = combinedAutomaton ? new BlueprintAutomaton(stringExtractors) : null;
+        this.adaptiveOrdering = !combinedAutomaton && adaptiveOrdering
+                                ? new AdaptiveOrdering(stringExtractors,
+                                                       AdaptiveOrdering.DEFAULT_REORDER_INTERVAL_NANOS)
+                                : null;
     }
 
     /**
      * Given the precompiled set of blueprints(as part of the constructor),
      * try to extract from source string.
+     * Only blueprints whose leading literal is a prefix of the source (or those without any leading literal) are
+     * tried, in the order in which they were declared (or in an equivalent order, with adaptive ordering).
      *
      * @param source     string used as source
      * @param contextMap map containing runtime context for replacements
@@ -65,12 +118,103 @@ public class BulkStringExtractor implements Extractor {
      */
     @Override
     public ExtractionResult extractFrom(final String source, final Map<String, String> contextMap) {
-        for (final StringExtractor stringExtractor : stringExtractors) {
-            final ExtractionResult extractionResult = stringExtractor.extractFrom(source, contextMap);
+        return extractFrom((CharSequence) source, contextMap);
+    }
+
+    /**
+     * Same as {@link #extractFrom(String, Map)}, but matches the char sequence in place, without copying it.
+     *
+     * @param source     source char sequence, that must not be modified during the extraction
+     * @param contextMap map containing runtime context for replacements
+     * @return result of the first blueprint that matches, else {@link ExtractionResult#error()}
+     */
+    @Override
+    public ExtractionResult extractFrom(final CharSequence source, final Map<String, String> contextMap) {
+        if (automaton != null) {
+            return automaton.extractFrom(source, contextMap);
+        }
+        LeadingLiteralTrie trie = leadingLiteralTrie;
+        /* candidates returned by the trie are ranks in this order, if blueprints have been reordered */
+        int[] order = null;
+        if (adaptiveOrdering != null) {
+            final AdaptiveOrdering.Dispatch dispatch = adaptiveOrdering.current();
+            trie = dispatch.getTrie();
+            order = dispatch.getOrder();
+        }
+        final int[] prefixed = trie.prefixedBy(source);
+        final int[] unprefixed = trie.unprefixed();
+
+        /* merge both sorted candidate lists, so that the first blueprint in order still wins */
+        int i = 0;
+        int j = 0;
+        while (i < prefixed.length || j < unprefixed.length) {
+            final int next;
+            if (j == unprefixed.length || (i < prefixed.length && prefixed[i] < unprefixed[j])) {
+                next = prefixed[i++];
+            } else {
+                next = unprefixed[j++];
+            }
+            final int blueprint = order == null ? next : order[next];
+            final ExtractionResult extractionResult = metrics == null
+                                                      ? stringExtractors.get(blueprint).extractFrom(source, contextMap)
+                                                      : metrics.extract(blueprint, source, contextMap);
             if (!extractionResult.isError()) {
+                if (adaptiveOrdering != null) {
+                    adaptiveOrdering.hit(blueprint);
+                }
                 return extractionResult;
             }
         }
         return ExtractionResult.error();
     }
+
+    /**
+     * Carry over how often the blueprints it shares with the previous extractor matched, if both order blueprints
+     * adaptively (see {@link AdaptiveOrdering#carryOver(AdaptiveOrdering)}). Has to be called before this extractor
+     * is used.
+     *
+     * @param previous extractor this one replaces
+     */
+    void carryOverHits(final BulkStringExtractor previous) {
+        if (adaptiveOrdering != null && previous.adaptiveOrdering != null) {
+            adaptiveOrdering.carryOver(previous.adaptiveOrdering);
+        }
+    }
+
+    /**
+     * @return compiled blueprints, in declaration order
+     */
+    List<StringExtractor> stringExtractors() {
+        return stringExtractors;
+    }
+
+    @SuppressWarnings("java:S107")
+    private static List<StringExtractor> compile(final List<String> blueprints,
+                                                 final char variableStart,
+                                                 final char variablePrefix,
+                                                 final char regexSeparator,
+                                                 final char variableSuffix,
+                                                 final boolean failOnStringRemainingAfterExtraction,
+                                                 final String skippedVariable,
+                                                 final String contextMappedVariable,
+                                                 final String staticAttachVariable,
+                                                 final boolean anchoredRegexMatching) throws BlueprintParseError {
+        final List<StringExtractor> stringExtractors = new ArrayList<>();
+        final CompilationContext context = new CompilationContext();
+        for (final String blueprint : blueprints) {
+            stringExtractors.add(new StringExtractor(blueprint,
+                                                     variableStart,
+                                                     variablePrefix,
+                                                     regexSeparator,
+                                                     variableSuffix,
+                                                     failOnStringRemainingAfterExtraction,
+                                                     skippedVariable,
+                                                     contextMappedVariable,
+                                                     staticAttachVariable,
+                                                     anchoredRegexMatching,
+                                                     false,
+                                                     context));
+        }
+        return stringExtractors;
+    }
 }
\ No newline at end of file
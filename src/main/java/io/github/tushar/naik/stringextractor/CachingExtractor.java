@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.val;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An extractor that caches the {@link ExtractionResult} of a delegate extractor, per source string.
+ * <p>
+ * The cache holds at most {@code maxEntries} results, and evicts using the CLOCK algorithm (an approximation of
+ * LRU): a hit only sets a flag on the entry, so concurrent readers never block each other. Only writers that push
+ * the cache over its capacity take a lock to evict.
+ * <p>
+ * Extractions with a non empty context map are never cached, since context mapped variables make the result depend
+ * on the context. Cached results are shared across callers, so their extractions are exposed as an unmodifiable map.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+public class CachingExtractor implements Extractor {
+    private final Extractor delegate;
+    private final int maxEntries;
+    private final Map<String, Entry> cache;
+    private final Queue<Entry> clock = new ConcurrentLinkedQueue<>();
+    private final Lock evictionLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+
+    public CachingExtractor(final Extractor delegate, final int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries has to be positive, was: " + maxEntries);
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.cache = new ConcurrentHashMap<>(Math.min(maxEntries, 1 << 16));
+    }
+
+    @Override
+    public ExtractionResult extractFrom(final String source, final Map<String, String> contextMap) {
+        if (source == null || (contextMap != null && !contextMap.isEmpty())) {
+            bypasses.increment();
+            return delegate.extractFrom(source, contextMap);
+        }
+        val entry = cache.get(source);
+        if (entry != null) {
+            hits.increment();
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            return entry.result;
+        }
+        misses.increment();
+        val result = immutable(delegate.extractFrom(source, contextMap));
+        val created = new Entry(source, result);
+        if (cache.putIfAbsent(source, created) == null) {
+            clock.offer(created);
+            if (cache.size() > maxEntries) {
+                evict();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return current statistics of this cache
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), bypasses.sum(), cache.size());
+    }
+
+    private void evict() {
+        evictionLock.lock();
+        try {
+            while (cache.size() > maxEntries) {
+                val candidate = clock.poll();
+                if (candidate == null) {
+                    return;
+                }
+                if (candidate.referenced) {
+                    /* second chance */
+                    candidate.referenced = false;
+                    clock.offer(candidate);
+                } else if (cache.remove(candidate.source, candidate)) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static ExtractionResult immutable(final ExtractionResult result) {
+        /* slot backed extractions are read only already */
+        if (result.isError() || result.getExtractions() instanceof SlotMap) {
+            return result;
+        }
+        return ExtractionResult.builder()
+                .extractedString(result.getExtractedString())
+                .extractions(Collections.unmodifiableMap(result.getExtractions()))
+                .build();
+    }
+
+    private static class Entry {
+        private final String source;
+        private final ExtractionResult result;
+        private volatile boolean referenced;
+
+        private Entry(final String source, final ExtractionResult result) {
+            this.source = source;
+            this.result = result;
+        }
+    }
+}
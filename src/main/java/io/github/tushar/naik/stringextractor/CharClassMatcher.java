@@ -0,0 +1,270 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import java.util.regex.Pattern;
+
+/**
+ * Matches regexes that are a single character class with a quantifier (like {@code [a-z0-9-]+}, {@code [^.]+} or
+ * {@code \d{4}}), without going through {@link java.util.regex.Matcher}.
+ * Members of the class have to be ASCII, and are held as a 128-bit lookup table, while non ASCII characters are
+ * either all in the class (negated classes) or none of them are.
+ * <p>
+ * Since a single class can't backtrack into anything else, the leftmost match is the first position from which a
+ * long enough run of class characters starts, and the greedy match is that run, capped at the maximum.
+ * Negated classes would count surrogate pairs as one character in a regex, so they are only supported with
+ * unbounded quantifiers of at most one repetition ({@code +} and {@code *}), where counting doesn't matter.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+final class CharClassMatcher {
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    /* members in [0, 64) and [64, 128) */
+    private final long low;
+    private final long high;
+    private final boolean nonAsciiMembers;
+    private final int min;
+    private final int max;
+
+    private CharClassMatcher(final long low, final long high, final boolean nonAsciiMembers, final int min,
+                             final int max) {
+        this.low = low;
+        this.high = high;
+        this.nonAsciiMembers = nonAsciiMembers;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @return a matcher equivalent to the pattern, or null if the pattern isn't a simple character class
+     */
+    static CharClassMatcher of(final Pattern pattern) {
+        if (pattern.flags() != 0) {
+            return null;
+        }
+        return new Parser(pattern.pattern()).parse();
+    }
+
+    boolean contains(final char c) {
+        if (c < 64) {
+            return (low >>> c & 1L) != 0;
+        }
+        if (c < 128) {
+            return (high >>> (c - 64) & 1L) != 0;
+        }
+        return nonAsciiMembers;
+    }
+
+    /**
+     * Same as {@link java.util.regex.Matcher#find()} (or {@link java.util.regex.Matcher#lookingAt()} if anchored) on
+     * the region [from, length) of the source
+     *
+     * @param spans gets the start and end of the match, at offset and offset + 1
+     * @return true if there was a match
+     */
+    boolean match(final CharSequence source, final int from, final boolean anchored, final int[] spans,
+                  final int offset) {
+        final int length = source.length();
+        int start = from;
+        while (start <= length) {
+            int run = 0;
+            while (run < max && start + run < length && contains(source.charAt(start + run))) {
+                run++;
+            }
+            if (run >= min) {
+                spans[offset] = start;
+                spans[offset + 1] = start + run;
+                return true;
+            }
+            if (anchored) {
+                return false;
+            }
+            /* no run starting within this one can be long enough, and the character after it isn't in the class */
+            start += run + 1;
+        }
+        return false;
+    }
+
+    private static class Parser {
+        private final String regex;
+        private int index;
+        private long low;
+        private long high;
+
+        private Parser(final String regex) {
+            this.regex = regex;
+        }
+
+        private CharClassMatcher parse() {
+            final boolean negated;
+            if (regex.startsWith("\\d") || regex.startsWith("\\w") || regex.startsWith("\\s")) {
+                addPredefined(regex.charAt(1));
+                index = 2;
+                negated = false;
+            } else if (regex.startsWith("[")) {
+                index = 1;
+                negated = peek() == '^';
+                if (negated) {
+                    index++;
+                }
+                if (!parseMembers()) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+            final int[] bounds = parseQuantifier();
+            if (bounds == null || index != regex.length()) {
+                return null;
+            }
+            if (negated && (bounds[0] > 1 || bounds[1] != UNBOUNDED)) {
+                return null;
+            }
+            return negated
+                   ? new CharClassMatcher(~low, ~high, true, bounds[0], bounds[1])
+                   : new CharClassMatcher(low, high, false, bounds[0], bounds[1]);
+        }
+
+        /* members up to (and including) the closing bracket */
+        private boolean parseMembers() {
+            boolean empty = true;
+            while (index < regex.length()) {
+                final char c = regex.charAt(index);
+                if (c == ']' && !empty) {
+                    index++;
+                    return true;
+                }
+                final int from = member();
+                if (from < 0) {
+                    return false;
+                }
+                empty = false;
+                /* a '-' before the closing bracket is a literal */
+                if (peek() == '-' && index + 1 < regex.length() && regex.charAt(index + 1) != ']') {
+                    index++;
+                    final int to = member();
+                    if (to < 0 || to < from) {
+                        return false;
+                    }
+                    for (int member = from; member <= to; member++) {
+                        add((char) member);
+                    }
+                } else {
+                    add((char) from);
+                }
+            }
+            return false;
+        }
+
+        /* a single ascii member, or -1 if it's anything else (nested classes, intersections, unicode etc.) */
+        private int member() {
+            final char c = regex.charAt(index++);
+            if (c == '\\') {
+                if (index == regex.length()) {
+                    return -1;
+                }
+                final char escaped = regex.charAt(index++);
+                /* escaped punctuation is a literal, escaped letters and digits have special meanings */
+                return escaped < 128 && !Character.isLetterOrDigit(escaped) ? escaped : -1;
+            }
+            if (c >= 128 || c == '[' || c == ']' || c == '&' || c == '^') {
+                return -1;
+            }
+            return c;
+        }
+
+        /* {min, max}, or null if the quantifier is not supported */
+        private int[] parseQuantifier() {
+            if (index == regex.length()) {
+                return new int[]{1, 1};
+            }
+            final char c = regex.charAt(index++);
+            switch (c) {
+                case '+':
+                    return new int[]{1, UNBOUNDED};
+                case '*':
+                    return new int[]{0, UNBOUNDED};
+                case '?':
+                    return new int[]{0, 1};
+                case '{': {
+                    final int close = regex.indexOf('}', index);
+                    if (close < 0) {
+                        return null;
+                    }
+                    final String[] bounds = regex.substring(index, close).split(",", -1);
+                    index = close + 1;
+                    try {
+                        final int lower = Integer.parseInt(bounds[0]);
+                        if (bounds.length == 1) {
+                            return new int[]{lower, lower};
+                        }
+                        if (bounds.length == 2) {
+                            final int upper = bounds[1].isEmpty() ? UNBOUNDED : Integer.parseInt(bounds[1]);
+                            return upper >= lower ? new int[]{lower, upper} : null;
+                        }
+                        return null;
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+                default:
+                    return null;
+            }
+        }
+
+        private void addPredefined(final char type) {
+            switch (type) {
+                case 'd':
+                    addRange('0', '9');
+                    break;
+                case 'w':
+                    addRange('a', 'z');
+                    addRange('A', 'Z');
+                    addRange('0', '9');
+                    add('_');
+                    break;
+                default:
+                    /* \s */
+                    add(' ');
+                    add('\t');
+                    add('\n');
+                    add('\u000B');
+                    add('\f');
+                    add('\r');
+                    break;
+            }
+        }
+
+        private void addRange(final char from, final char to) {
+            for (char c = from; c <= to; c++) {
+                add(c);
+            }
+        }
+
+        private void add(final char c) {
+            if (c < 64) {
+                low |= 1L << c;
+            } else {
+                high |= 1L << (c - 64);
+            }
+        }
+
+        private char peek() {
+            return index < regex.length() ? regex.charAt(index) : 0;
+        }
+    }
+}
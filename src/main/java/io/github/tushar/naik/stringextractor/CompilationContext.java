@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.Value;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Interns the patterns, matchers and literals of blueprints that are compiled together.
+ * Large sets of blueprints repeat the same few regexes and literals many times over, so sharing them cuts both the
+ * time spent in {@link Pattern#compile(String)} and the heap held by the compiled blueprints.
+ * Safe to use from multiple threads, since blueprints may be compiled in parallel.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+class CompilationContext {
+    private final Map<PatternKey, Pattern> patterns = new ConcurrentHashMap<>();
+    /* patterns are interned, so they can be keyed by identity (Pattern doesn't override equals) */
+    private final Map<Pattern, ReusableMatcher> matchers = new ConcurrentHashMap<>();
+    private final Map<String, String> literals = new ConcurrentHashMap<>();
+
+    /**
+     * @param regex regex to be compiled
+     * @return shared pattern for the regex
+     * @throws java.util.regex.PatternSyntaxException if the regex is invalid
+     */
+    Pattern pattern(final String regex) {
+        return pattern(regex, 0);
+    }
+
+    /**
+     * @param regex regex to be compiled
+     * @param flags match flags, as in {@link Pattern#compile(String, int)}
+     * @return shared pattern for the regex and flags
+     * @throws java.util.regex.PatternSyntaxException if the regex is invalid
+     */
+    Pattern pattern(final String regex, final int flags) {
+        return patterns.computeIfAbsent(new PatternKey(regex, flags), key -> Pattern.compile(regex, flags));
+    }
+
+    /**
+     * @param pattern pattern to be matched
+     * @return shared matcher for the pattern
+     */
+    ReusableMatcher matcher(final Pattern pattern) {
+        return matchers.computeIfAbsent(pattern, ReusableMatcher::new);
+    }
+
+    /**
+     * @param literal a literal, or a variable name
+     * @return an equal string, shared by all the blueprints of this context
+     */
+    String literal(final String literal) {
+        if (literal == null) {
+            return null;
+        }
+        final String existing = literals.putIfAbsent(literal, literal);
+        return existing == null ? literal : existing;
+    }
+
+    int patternCount() {
+        return patterns.size();
+    }
+
+    int literalCount() {
+        return literals.size();
+    }
+
+    @Value
+    private static class PatternKey {
+        String regex;
+        int flags;
+    }
+}
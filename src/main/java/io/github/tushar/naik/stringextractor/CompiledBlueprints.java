@@ -0,0 +1,303 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A versioned binary format for compiled blueprints, so that services can load them at startup without parsing the
+ * blueprints again. Blueprints may be compiled and written at build time, and loaded (memory mapped) at runtime.
+ * <p>
+ * Layout (big endian, strings as a length prefixed UTF-8 byte sequence, with length -1 for null):
+ * <pre>
+ * int magic, short version, int blueprint count, then per blueprint:
+ *   boolean failOnStringRemainingAfterExtraction, boolean anchoredRegexMatching, int number of variables,
+ *   int slot count, string name per slot,
+ *   int instruction count, then per instruction:
+ *     byte opcode, string operand, string pattern, int pattern flags, string variable name, int slot,
+ *     boolean retained
+ * </pre>
+ * Regexes are stored as their source and flags, and compiled again while loading. The dispatch index over leading
+ * literals is rebuilt while loading, since it is derived from the programs in time linear to their literals.
+ * <p>
+ * Only the blueprints round-trip. Options applied by the {@link ExtractorBuilder} around them (the combined automaton,
+ * adaptive ordering, result cache, negative match filter, metrics and code generation) are not persisted, and a
+ * loaded extractor matches blueprints in order through their interpreted programs.
+ * <p>
+ * Every count and length is validated against the bytes remaining before anything is allocated, so a corrupt or
+ * hostile file fails with an {@link IOException} instead of exhausting the heap.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+@UtilityClass
+public class CompiledBlueprints {
+    private static final int MAGIC = 0x53584250;
+    private static final short VERSION = 1;
+    /* minimum encoded sizes, used to bound counts by the bytes remaining */
+    private static final int MIN_STRING_BYTES = 4;
+    private static final int MIN_BLUEPRINT_BYTES = 14;
+    private static final int MIN_INSTRUCTION_BYTES = 22;
+
+    /**
+     * @param extractor a {@link StringExtractor} or a {@link BulkStringExtractor}
+     * @param output    stream to write to (not closed)
+     * @throws IOException if writing fails
+     */
+    public void write(final Extractor extractor, final OutputStream output) throws IOException {
+        final List<StringExtractor> stringExtractors;
+        if (extractor instanceof StringExtractor) {
+            stringExtractors = Collections.singletonList((StringExtractor) extractor);
+        } else if (extractor instanceof BulkStringExtractor) {
+            stringExtractors = ((BulkStringExtractor) extractor).stringExtractors();
+        } else {
+            throw new IllegalArgumentException("Only StringExtractor and BulkStringExtractor can be written, got: "
+                                                       + extractor.getClass().getName());
+        }
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeInt(stringExtractors.size());
+        for (final StringExtractor stringExtractor : stringExtractors) {
+            data.writeBoolean(stringExtractor.isFailOnStringRemainingAfterExtraction());
+            data.writeBoolean(stringExtractor.isAnchoredRegexMatching());
+            data.writeInt((int) stringExtractor.numberOfVariables());
+            final ExtractionSchema schema = stringExtractor.schema();
+            data.writeInt(schema.size());
+            for (int i = 0; i < schema.size(); i++) {
+                writeString(data, schema.name(i));
+            }
+            final Instruction[] program = stringExtractor.program();
+            data.writeInt(program.length);
+            for (final Instruction instruction : program) {
+                final Pattern pattern = instruction.getMatcher() == null ? null : instruction.getMatcher().getPattern();
+                data.writeByte(instruction.getOpcode());
+                writeString(data, instruction.getOperand());
+                writeString(data, pattern == null ? null : pattern.pattern());
+                data.writeInt(pattern == null ? 0 : pattern.flags());
+                writeString(data, instruction.getVariableName());
+                data.writeInt(instruction.getSlot());
+                data.writeBoolean(instruction.isRetained());
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * @param extractor a {@link StringExtractor} or a {@link BulkStringExtractor}
+     * @param file      file to write to (replaced if it exists)
+     * @throws IOException if writing fails
+     */
+    public void write(final Extractor extractor, final Path file) throws IOException {
+        try (OutputStream output = Files.newOutputStream(file)) {
+            write(extractor, output);
+        }
+    }
+
+    /**
+     * Loads blueprints from a memory mapped file
+     *
+     * @param file file written using {@link #write(Extractor, Path)}
+     * @return a {@link StringExtractor} for a single blueprint, else a {@link BulkStringExtractor}
+     * @throws IOException if the file can't be read, or isn't in a supported format
+     */
+    public Extractor load(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return load(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @param input stream written to using {@link #write(Extractor, OutputStream)} (not closed)
+     * @return a {@link StringExtractor} for a single blueprint, else a {@link BulkStringExtractor}
+     * @throws IOException if the stream can't be read, or isn't in a supported format
+     */
+    public Extractor load(final InputStream input) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return load(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    private Extractor load(final ByteBuffer data) throws IOException {
+        try {
+            if (data.getInt() != MAGIC) {
+                throw new IOException("Not a compiled blueprints file");
+            }
+            final short version = data.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported compiled blueprints version: " + version);
+            }
+            final int count = readCount(data, MIN_BLUEPRINT_BYTES, "blueprint count");
+            final List<StringExtractor> stringExtractors = new ArrayList<>(count);
+            final CompilationContext context = new CompilationContext();
+            for (int i = 0; i < count; i++) {
+                stringExtractors.add(readStringExtractor(data, context));
+            }
+            if (stringExtractors.isEmpty()) {
+                throw new IOException("No blueprints found");
+            }
+            return stringExtractors.size() == 1
+                   ? stringExtractors.get(0)
+                   : new BulkStringExtractor(stringExtractors, false, false);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated compiled blueprints", e);
+        } catch (IllegalArgumentException e) {
+            /* PatternSyntaxException, or unsupported pattern flags */
+            throw new IOException("Invalid regex in compiled blueprints", e);
+        }
+    }
+
+    private StringExtractor readStringExtractor(final ByteBuffer data,
+                                                final CompilationContext context) throws IOException {
+        final boolean failOnStringRemainingAfterExtraction = data.get() != 0;
+        final boolean anchoredRegexMatching = data.get() != 0;
+        final int numberOfVariables = data.getInt();
+        if (numberOfVariables < 0) {
+            throw new IOException("Invalid number of variables: " + numberOfVariables);
+        }
+        final int slots = readCount(data, MIN_STRING_BYTES, "slot count");
+        final List<String> names = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            names.add(context.literal(readString(data)));
+        }
+        final Instruction[] program = new Instruction[readCount(data, MIN_INSTRUCTION_BYTES, "instruction count")];
+        for (int i = 0; i < program.length; i++) {
+            program[i] = readInstruction(data, context);
+            final int slot = program[i].getSlot();
+            final boolean validSlot = slot >= 0 && slot < slots;
+            if (storesExtraction(program[i]) ? !validSlot : !validSlot && slot != Instruction.NO_SLOT) {
+                throw new IOException("Invalid slot: " + slot + " for opcode: " + program[i].getOpcode() + ", with "
+                                              + slots + " slots");
+            }
+        }
+        return new StringExtractor(program, new ExtractionSchema(names), numberOfVariables,
+                                   failOnStringRemainingAfterExtraction, anchoredRegexMatching);
+    }
+
+    /* true for the instructions that write an extraction at their slot, see StringExtractor#materialize */
+    private boolean storesExtraction(final Instruction instruction) {
+        switch (instruction.getOpcode()) {
+            case Instruction.REGEX_MATCH:
+                return !instruction.isRetained();
+            case Instruction.EXACT_MATCH_VARIABLE:
+            case Instruction.LAST:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private Instruction readInstruction(final ByteBuffer data,
+                                        final CompilationContext context) throws IOException {
+        final int opcode = data.get();
+        final String operand = context.literal(readString(data));
+        final String regex = readString(data);
+        final int flags = data.getInt();
+        final String variableName = context.literal(readString(data));
+        final int slot = data.getInt();
+        final boolean retained = data.get() != 0;
+        switch (opcode) {
+            case Instruction.EXACT_MATCH:
+                return Instruction.exactMatch(required(operand, "operand"));
+            case Instruction.REGEX_MATCH:
+                return Instruction.regexMatch(required(variableName, "variable name"),
+                                              context.matcher(context.pattern(required(regex, "regex"), flags)),
+                                              slot, retained);
+            case Instruction.DISCARDED_REGEX_MATCH:
+                return Instruction.discardedRegexMatch(context.matcher(context.pattern(required(regex, "regex"),
+                                                                                       flags)));
+            case Instruction.EXACT_MATCH_VARIABLE:
+                return Instruction.exactMatchVariable(required(variableName, "variable name"),
+                                                      required(operand, "operand"), slot, retained);
+            case Instruction.DISCARDED_EXACT_MATCH:
+                return Instruction.discardedExactMatch(required(operand, "operand"));
+            case Instruction.LAST:
+                return Instruction.last(required(variableName, "variable name"), slot, retained);
+            case Instruction.CONTEXT_MAPPED:
+                return Instruction.contextMapped(required(operand, "operand"));
+            case Instruction.STATIC_ATTACH:
+                return Instruction.staticAttach(required(operand, "operand"));
+            default:
+                throw new IOException("Unknown opcode: " + opcode);
+        }
+    }
+
+    private void writeString(final DataOutputStream data, final String string) throws IOException {
+        if (string == null) {
+            data.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private String readString(final ByteBuffer data) throws IOException {
+        final int length = data.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > data.remaining()) {
+            throw new IOException("Invalid string length: " + length + ", remaining: " + data.remaining());
+        }
+        final byte[] bytes = new byte[length];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param data               buffer to read the count from
+     * @param minBytesPerElement minimum encoded size of each counted element
+     * @param what               description of the count, for the error message
+     * @return count, which is guaranteed to fit in the bytes remaining
+     * @throws IOException if the count is negative, or too large for the bytes remaining
+     */
+    private int readCount(final ByteBuffer data, final int minBytesPerElement, final String what) throws IOException {
+        final int count = data.getInt();
+        if (count < 0 || count > data.remaining() / minBytesPerElement) {
+            throw new IOException("Invalid " + what + ": " + count + ", remaining bytes: " + data.remaining());
+        }
+        return count;
+    }
+
+    private String required(final String value, final String what) throws IOException {
+        if (value == null) {
+            throw new IOException("Missing " + what + " in compiled blueprints");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Exports {@link ExtractionMetrics} to a Dropwizard {@link MetricRegistry}, as gauges that read the metrics when they
+ * are reported.
+ * Needs <a href="https://metrics.dropwizard.io">io.dropwizard.metrics:metrics-core</a> on the classpath.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+@UtilityClass
+public class DropwizardMetrics {
+
+    /**
+     * Registers gauges named {@code <prefix>.blueprint.<index>.<metric>} for every blueprint, where the index is the
+     * declaration order of the blueprint, and the metric is one of attempts, hits, misses, hitRate, and (if latencies
+     * are sampled) latency.p50, latency.p99 in nanoseconds.
+     * Has to be called once the extractor the metrics are recorded for has been built.
+     *
+     * @param metrics  metrics to be exported
+     * @param registry registry to register the gauges with
+     * @param prefix   prefix of the gauge names
+     */
+    public void register(final ExtractionMetrics metrics, final MetricRegistry registry, final String prefix) {
+        for (int i = 0; i < metrics.blueprintCount(); i++) {
+            final int index = i;
+            final String name = MetricRegistry.name(prefix, "blueprint", String.valueOf(index));
+            registry.register(MetricRegistry.name(name, "attempts"),
+                              (Gauge<Long>) () -> metrics.attemptCount(index));
+            registry.register(MetricRegistry.name(name, "hits"),
+                              (Gauge<Long>) () -> metrics.hitCount(index));
+            registry.register(MetricRegistry.name(name, "misses"),
+                              (Gauge<Long>) () -> metrics.missCount(index));
+            registry.register(MetricRegistry.name(name, "hitRate"),
+                              (Gauge<Double>) () -> hitRate(metrics, index));
+            if (metrics.isRecordingLatencies()) {
+                registry.register(MetricRegistry.name(name, "latency", "p50"),
+                                  (Gauge<Long>) () -> metrics.latencyPercentileNanos(index, 50));
+                registry.register(MetricRegistry.name(name, "latency", "p99"),
+                                  (Gauge<Long>) () -> metrics.latencyPercentileNanos(index, 99));
+            }
+        }
+    }
+
+    private double hitRate(final ExtractionMetrics metrics, final int index) {
+        final long attempts = metrics.attemptCount(index);
+        return attempts == 0 ? 0.0 : (double) metrics.hitCount(index) / attempts;
+    }
+}
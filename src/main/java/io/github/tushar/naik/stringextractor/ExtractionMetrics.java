@@ -0,0 +1,229 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in, per blueprint metrics of an extractor (see {@link ExtractorBuilder#withMetrics(ExtractionMetrics)}).
+ * <p>
+ * Counts how often each blueprint was tried, how often it matched, and for misses, which component of the blueprint
+ * failed to match. Counters are {@link LongAdder}s, so recording doesn't contend across threads. Latencies are only
+ * recorded for a sample of extractions, if asked for, into a histogram with power of two buckets.
+ * <p>
+ * Metrics are read through {@link #snapshot()}, or exported to a Dropwizard registry with {@link DropwizardMetrics}.
+ * An instance can only be used with a single extractor.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+public class ExtractionMetrics {
+    private static final int HISTOGRAM_BUCKETS = 64;
+    private static final String REMAINING_CHARACTERS = "remaining characters";
+
+    private final int latencySamplingRate;
+    private volatile Counters[] counters;
+
+    /**
+     * Metrics without any latencies
+     */
+    public ExtractionMetrics() {
+        this(0);
+    }
+
+    /**
+     * @param latencySamplingRate time one in these many extractions, 0 to not record latencies at all
+     */
+    public ExtractionMetrics(final int latencySamplingRate) {
+        if (latencySamplingRate < 0) {
+            throw new IllegalArgumentException("latencySamplingRate can't be negative, was: " + latencySamplingRate);
+        }
+        this.latencySamplingRate = latencySamplingRate;
+    }
+
+    /**
+     * @return metrics of every blueprint, in declaration order (empty, if not used with an extractor yet)
+     */
+    public List<BlueprintStats> snapshot() {
+        final Counters[] current = counters;
+        if (current == null) {
+            return Collections.emptyList();
+        }
+        final List<BlueprintStats> snapshot = new ArrayList<>(current.length);
+        for (final Counters blueprintCounters : current) {
+            snapshot.add(blueprintCounters.snapshot());
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return number of blueprints metrics are recorded for
+     */
+    public int blueprintCount() {
+        final Counters[] current = counters;
+        return current == null ? 0 : current.length;
+    }
+
+    /**
+     * @param index index of the blueprint, in declaration order
+     * @return metrics of the blueprint
+     */
+    public BlueprintStats snapshot(final int index) {
+        return countersOf(index).snapshot();
+    }
+
+    /* single counters, read without taking a whole snapshot (see DropwizardMetrics) */
+
+    long attemptCount(final int index) {
+        return countersOf(index).attempts.sum();
+    }
+
+    long hitCount(final int index) {
+        return countersOf(index).hits.sum();
+    }
+
+    long missCount(final int index) {
+        return countersOf(index).misses.sum();
+    }
+
+    long latencyPercentileNanos(final int index, final double percentile) {
+        final LongAdder[] latencies = countersOf(index).latencies;
+        return BlueprintStats.percentileNanos(latencies.length, bucket -> latencies[bucket].sum(), percentile);
+    }
+
+    private Counters countersOf(final int index) {
+        final Counters[] current = counters;
+        if (current == null || index < 0 || index >= current.length) {
+            throw new IndexOutOfBoundsException("No metrics for blueprint: " + index);
+        }
+        return current[index];
+    }
+
+    /**
+     * @return true if latencies of a sample of extractions are recorded
+     */
+    public boolean isRecordingLatencies() {
+        return latencySamplingRate > 0;
+    }
+
+    synchronized void bind(final List<String> blueprints, final List<StringExtractor> stringExtractors) {
+        if (counters != null) {
+            throw new IllegalStateException("ExtractionMetrics can only be used with a single extractor");
+        }
+        final Counters[] bound = new Counters[stringExtractors.size()];
+        for (int i = 0; i < bound.length; i++) {
+            bound[i] = new Counters(blueprints.get(i), stringExtractors.get(i));
+        }
+        counters = bound;
+    }
+
+    /**
+     * Extracts using the blueprint, recording the outcome against it.
+     * Extraction takes the same path as it would without metrics (fixed offset or generated matchers included). Only
+     * on a miss is the program interpreted again, to tell which instruction failed, outside of the latency measured.
+     */
+    ExtractionResult extract(final int blueprint,
+                             final CharSequence source,
+                             final Map<String, String> contextMap) {
+        final Counters blueprintCounters = counters[blueprint];
+        final StringExtractor stringExtractor = blueprintCounters.stringExtractor;
+        blueprintCounters.attempts.increment();
+        final boolean timed = latencySamplingRate > 0
+                && ThreadLocalRandom.current().nextInt(latencySamplingRate) == 0;
+        final long start = timed ? System.nanoTime() : 0;
+        final ExtractionResult extractionResult = stringExtractor.extractFrom(source, contextMap);
+        if (timed) {
+            final long elapsed = Math.max(1, System.nanoTime() - start);
+            blueprintCounters.latencies[63 - Long.numberOfLeadingZeros(elapsed)].increment();
+        }
+        if (!extractionResult.isError()) {
+            blueprintCounters.hits.increment();
+            return extractionResult;
+        }
+        blueprintCounters.misses.increment();
+        final int failed = stringExtractor.matchOrFail(source, stringExtractor.newSpans());
+        /* every matcher agrees with the interpreter, so this only guards against a source modified meanwhile */
+        if (failed != StringExtractor.MATCHED) {
+            blueprintCounters.missesByComponent[failed].increment();
+        }
+        return extractionResult;
+    }
+
+    private static String describe(final Instruction instruction) {
+        switch (instruction.getOpcode()) {
+            case Instruction.REGEX_MATCH:
+                return "${{" + instruction.getVariableName() + ":" + instruction.getMatcher().getPattern() + "}}";
+            case Instruction.DISCARDED_REGEX_MATCH:
+                return "${{:" + instruction.getMatcher().getPattern() + "}}";
+            case Instruction.EXACT_MATCH_VARIABLE:
+                return "${{" + instruction.getVariableName() + ":" + instruction.getOperand() + "}}";
+            case Instruction.DISCARDED_EXACT_MATCH:
+                return "${{:" + instruction.getOperand() + "}}";
+            case Instruction.LAST:
+                return "${{" + instruction.getVariableName() + "}}";
+            default:
+                return instruction.getOperand();
+        }
+    }
+
+    private static class Counters {
+        private final String blueprint;
+        private final StringExtractor stringExtractor;
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        /* one per instruction, and one for characters remaining after the last one */
+        private final LongAdder[] missesByComponent;
+        private final String[] components;
+        private final LongAdder[] latencies = new LongAdder[HISTOGRAM_BUCKETS];
+
+        private Counters(final String blueprint, final StringExtractor stringExtractor) {
+            this.blueprint = blueprint;
+            this.stringExtractor = stringExtractor;
+            final Instruction[] program = stringExtractor.program();
+            this.missesByComponent = new LongAdder[program.length + 1];
+            this.components = new String[program.length + 1];
+            for (int i = 0; i < program.length; i++) {
+                missesByComponent[i] = new LongAdder();
+                /* the same component may appear more than once in a blueprint */
+                components[i] = "[" + i + "] " + describe(program[i]);
+            }
+            missesByComponent[program.length] = new LongAdder();
+            components[program.length] = REMAINING_CHARACTERS;
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new LongAdder();
+            }
+        }
+
+        private BlueprintStats snapshot() {
+            final Map<String, Long> byComponent = new LinkedHashMap<>();
+            for (int i = 0; i < missesByComponent.length; i++) {
+                byComponent.put(components[i], missesByComponent[i].sum());
+            }
+            final long[] histogram = new long[latencies.length];
+            for (int i = 0; i < latencies.length; i++) {
+                histogram[i] = latencies[i].sum();
+            }
+            return new BlueprintStats(blueprint, attempts.sum(), hits.sum(), misses.sum(),
+                                      Collections.unmodifiableMap(byComponent), histogram);
+        }
+    }
+}
@@ -15,21 +15,66 @@
 package io.github.tushar.naik.stringextractor;
 
 
+import lombok.AccessLevel;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.Value;
+import lombok.experimental.NonFinal;
 
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Value
-@Builder
 public class ExtractionResult {
     private static final ExtractionResult ERROR_RESULT = ExtractionResult.builder().error(true).build();
 
+    /* built on first access, if it is lazy (racy, but Strings are safe to publish without synchronization) */
+    @NonFinal
     String extractedString;
     Map<String, Object> extractions;
     boolean error;
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    Supplier<String> extractedStringSupplier;
+
+    @Builder
+    private ExtractionResult(final String extractedString, final Map<String, Object> extractions, final boolean error) {
+        this(extractedString, extractions, error, null);
+    }
+
+    private ExtractionResult(final String extractedString,
+                             final Map<String, Object> extractions,
+                             final boolean error,
+                             final Supplier<String> extractedStringSupplier) {
+        this.extractedString = extractedString;
+        this.extractions = extractions;
+        this.error = error;
+        this.extractedStringSupplier = extractedStringSupplier;
+    }
 
     public static ExtractionResult error() {
         return ERROR_RESULT;
     }
-}
\ No newline at end of file
+
+    /**
+     * @param extractions             extracted variables
+     * @param extractedStringSupplier builds the extracted string, when it is first asked for
+     * @return a successful result, whose extracted string is built lazily
+     */
+    static ExtractionResult lazy(final Map<String, Object> extractions,
+                                 final Supplier<String> extractedStringSupplier) {
+        return new ExtractionResult(null, extractions, false, extractedStringSupplier);
+    }
+
+    public String getExtractedString() {
+        String result = extractedString;
+        if (result == null && extractedStringSupplier != null) {
+            result = extractedStringSupplier.get();
+            extractedString = result;
+        }
+        return result;
+    }
+}
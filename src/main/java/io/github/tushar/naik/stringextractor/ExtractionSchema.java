@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Names of the variables that a blueprint extracts, each at a fixed slot.
+ * Built once per blueprint, and shared by all results extracted with it (see {@link SlotMap}).
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+class ExtractionSchema {
+    private final String[] names;
+    private final Map<String, Integer> slots;
+
+    /**
+     * @param names variable names, indexed by slot
+     */
+    ExtractionSchema(final List<String> names) {
+        this.names = names.toArray(new String[0]);
+        final Map<String, Integer> slotsByName = new HashMap<>();
+        for (int i = 0; i < this.names.length; i++) {
+            slotsByName.put(this.names[i], i);
+        }
+        this.slots = Collections.unmodifiableMap(slotsByName);
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    String name(final int slot) {
+        return names[slot];
+    }
+
+    /**
+     * @return slot of the variable, or {@link Instruction#NO_SLOT} if the blueprint doesn't extract it
+     */
+    int slotOf(final Object name) {
+        final Integer slot = slots.get(name);
+        return slot == null ? Instruction.NO_SLOT : slot;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(names);
+    }
+}
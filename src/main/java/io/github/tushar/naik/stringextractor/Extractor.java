@@ -1,7 +1,12 @@
 package io.github.tushar.naik.stringextractor;
 
+import java.nio.ByteBuffer;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public interface Extractor {
     default ExtractionResult extractFrom(String source) {
@@ -9,4 +14,108 @@ public interface Extractor {
     }
 
     ExtractionResult extractFrom(String source, Map<String, String> contextMap);
+
+    default ExtractionResult extractFrom(CharSequence source) {
+        return extractFrom(source, Collections.emptyMap());
+    }
+
+    /**
+     * Extract from any char sequence (like a {@link StringBuilder} or a {@link java.nio.CharBuffer}).
+     * Extractors that can't match in place copy the source into a String first.
+     * The source must not be modified while the extraction is in progress.
+     *
+     * @param source     source to extract from
+     * @param contextMap context used for replacements
+     * @return result after extraction
+     */
+    default ExtractionResult extractFrom(CharSequence source, Map<String, String> contextMap) {
+        return extractFrom(source == null ? null : source.toString(), contextMap);
+    }
+
+    /**
+     * @see #extractFromBytes(ByteBuffer, Map)
+     */
+    default ExtractionResult extractFromBytes(byte[] source) {
+        return extractFromBytes(ByteBuffer.wrap(source), Collections.emptyMap());
+    }
+
+    /**
+     * @see #extractFromBytes(ByteBuffer, Map)
+     */
+    default ExtractionResult extractFromBytes(ByteBuffer source) {
+        return extractFromBytes(source, Collections.emptyMap());
+    }
+
+    /**
+     * Extract from UTF-8 encoded bytes, between the position and the limit of the buffer (heap or direct).
+     * If all bytes are ASCII, they are matched in place, and only extracted values are decoded. Else, the source is
+     * decoded into a String first. The position of the buffer is left untouched.
+     * This isn't an overload of {@code extractFrom}, so that {@code extractFrom(null)} still resolves to
+     * {@link #extractFrom(String)}.
+     *
+     * @param source     UTF-8 encoded source
+     * @param contextMap context used for replacements
+     * @return result after extraction
+     */
+    default ExtractionResult extractFromBytes(ByteBuffer source, Map<String, String> contextMap) {
+        return extractFrom(AsciiByteSequence.of(source), contextMap);
+    }
+
+    /**
+     * Extract from a batch of sources in parallel, using the common {@link ForkJoinPool}
+     *
+     * @param sources sources to extract from
+     * @return results, in the same order as the sources
+     */
+    default List<ExtractionResult> extractAll(List<String> sources) {
+        return extractAll(sources, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Extract from a batch of sources in parallel, using a pool of the given parallelism, that lives only as long as
+     * this call
+     *
+     * @param sources     sources to extract from
+     * @param parallelism number of threads to extract with
+     * @return results, in the same order as the sources
+     */
+    default List<ExtractionResult> extractAll(List<String> sources, int parallelism) {
+        return BatchExtraction.extractAll(this, sources, parallelism);
+    }
+
+    /**
+     * Extract from a batch of sources in parallel, using the given pool
+     *
+     * @param sources sources to extract from
+     * @param pool    pool to extract in
+     * @return results, in the same order as the sources
+     */
+    default List<ExtractionResult> extractAll(List<String> sources, ForkJoinPool pool) {
+        return BatchExtraction.extractAll(this, sources, pool);
+    }
+
+    /**
+     * Extract from a batch of sources in parallel, using the common {@link ForkJoinPool}.
+     * The stream is collected before extraction starts.
+     *
+     * @param sources sources to extract from
+     * @return results, in the encounter order of the sources
+     */
+    default List<ExtractionResult> extractAll(Stream<String> sources) {
+        return extractAll(sources.collect(Collectors.toList()));
+    }
+
+    /**
+     * @see #extractAll(List, int)
+     */
+    default List<ExtractionResult> extractAll(Stream<String> sources, int parallelism) {
+        return extractAll(sources.collect(Collectors.toList()), parallelism);
+    }
+
+    /**
+     * @see #extractAll(List, ForkJoinPool)
+     */
+    default List<ExtractionResult> extractAll(Stream<String> sources, ForkJoinPool pool) {
+        return extractAll(sources.collect(Collectors.toList()), pool);
+    }
 }
@@ -1,7 +1,13 @@
 package io.github.tushar.naik.stringextractor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
 import static io.github.tushar.naik.stringextractor.BlueprintParseErrorCode.INCORRECT_BUILDER_USAGE;
 
@@ -16,6 +22,17 @@ public class ExtractorBuilder {
     private String skippedVariable = "";
     private String contextMappedVariable = "";
     private String staticAttachVariable = "";
+    private boolean anchoredRegexMatching = false;
+    private boolean combinedAutomaton = false;
+    private boolean adaptiveOrdering = false;
+    /* blueprints that get a generated matcher, null if code generation is off */
+    private Predicate<String> codegen = null;
+    private boolean lazyCompilation = false;
+    private ForkJoinPool compilationPool = null;
+    private int compilationParallelism = 1;
+    private int resultCacheSize = 0;
+    private int negativeMatchFilterSize = 0;
+    private ExtractionMetrics metrics = null;
 
     public static ExtractorBuilder newBuilder() {
         return new ExtractorBuilder();
@@ -71,18 +88,327 @@ public class ExtractorBuilder {
         return this;
     }
 
+    /**
+     * Regex variables are matched with {@link java.util.regex.Matcher#find()} by default, i.e. the first match in
+     * the remaining string is extracted. Set this to true, to only accept matches that start right where the
+     * previous component ended. Failing matches then cost O(1) instead of a scan to the end of the source.
+     *
+     * @param anchoredRegexMatching true to anchor regex matches at the current position
+     * @return builder
+     */
+    public ExtractorBuilder anchoredRegexMatching(boolean anchoredRegexMatching) {
+        this.anchoredRegexMatching = anchoredRegexMatching;
+        return this;
+    }
+
+    /**
+     * When multiple blueprints are provided, compile all of them into a single automaton, that shares the work
+     * common to several blueprints (same literals, same regexes at the same position), instead of trying each
+     * blueprint one after the other. Worth it for large sets of blueprints.
+     *
+     * @param combinedAutomaton true to match all blueprints using a single automaton
+     * @return builder
+     */
+    public ExtractorBuilder combinedAutomaton(boolean combinedAutomaton) {
+        this.combinedAutomaton = combinedAutomaton;
+        return this;
+    }
+
+    /**
+     * When multiple blueprints are provided, keep track of how often each one matches, and periodically move the
+     * ones that match most often ahead, so they are tried first. A blueprint is only moved ahead of blueprints that
+     * can't match the same sources, so the first declared blueprint that matches still wins.
+     * Has no effect when {@link #combinedAutomaton(boolean)} is used.
+     *
+     * @param adaptiveOrdering true to try blueprints that match often first
+     * @return builder
+     */
+    public ExtractorBuilder adaptiveOrdering(boolean adaptiveOrdering) {
+        this.adaptiveOrdering = adaptiveOrdering;
+        return this;
+    }
+
+    /**
+     * Generate a dedicated class per blueprint, that matches it in straight-line code with its literals and matchers
+     * baked in, instead of interpreting the compiled blueprint. Worth it for hot blueprints with regexes.
+     * On Java 15+, generated classes are hidden classes, unloaded along with the extractor. On older versions they
+     * stay loaded as long as this library is, so prefer {@link #withCodegen(Predicate)} for large sets of blueprints,
+     * and for reloadable extractors. Needs <a href="https://asm.ow2.io">org.ow2.asm:asm</a> on the classpath.
+     *
+     * @return builder
+     */
+    public ExtractorBuilder withCodegen() {
+        return withCodegen(blueprint -> true);
+    }
+
+    /**
+     * Same as {@link #withCodegen()}, but only for the blueprints selected, like the few that see most of the traffic
+     *
+     * @param blueprints selects the blueprints to generate classes for
+     * @return builder
+     */
+    public ExtractorBuilder withCodegen(Predicate<String> blueprints) {
+        this.codegen = blueprints;
+        return this;
+    }
+
+    /**
+     * Compile a blueprint only when a source first reaches it, instead of compiling all of them in {@link #build()}.
+     * Meant for large sets of blueprints, of which only a few ever get traffic. Upfront, blueprints are only scanned
+     * for their leading literal and minimum length, to dispatch sources on.
+     * A blueprint that can't be parsed fails the first extraction that reaches it with an
+     * {@link IllegalStateException}, instead of failing {@link #build()}. The combined automaton, adaptive ordering
+     * and parallel compilation don't apply to lazily compiled blueprints.
+     *
+     * @param lazyCompilation true to compile blueprints on first use
+     * @return builder
+     */
+    public ExtractorBuilder lazyCompilation(boolean lazyCompilation) {
+        this.lazyCompilation = lazyCompilation;
+        return this;
+    }
+
+    /**
+     * Compile blueprints in parallel, on a pool of the given parallelism, that only lives during {@link #build()}.
+     * The extractor built is the same as one built sequentially.
+     *
+     * @param parallelism number of threads to compile blueprints with
+     * @return builder
+     */
+    public ExtractorBuilder compileInParallel(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism has to be positive, was: " + parallelism);
+        }
+        this.compilationParallelism = parallelism;
+        this.compilationPool = null;
+        return this;
+    }
+
+    /**
+     * Compile blueprints in parallel, on the given pool (which is not shut down).
+     * The extractor built is the same as one built sequentially.
+     *
+     * @param pool pool to compile blueprints on
+     * @return builder
+     */
+    public ExtractorBuilder compileInParallel(ForkJoinPool pool) {
+        this.compilationPool = pool;
+        return this;
+    }
+
+    /**
+     * Cache the results of extractions per source string, for sources that repeat a lot.
+     * The extractor built will be a {@link CachingExtractor}, which exposes hit/miss/eviction statistics.
+     *
+     * @param maxEntries maximum number of results that are held in the cache (positive)
+     * @return builder
+     */
+    public ExtractorBuilder withResultCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries has to be positive, was: " + maxEntries);
+        }
+        this.resultCacheSize = maxEntries;
+        return this;
+    }
+
+    /**
+     * Remember sources that match none of the blueprints, so that they are rejected right away the next time.
+     * Memory is bounded by the capacity (8 bytes per entry), and the filter is cleared once it has churned through as
+     * many misses as its capacity.
+     *
+     * @param capacity number of misses that are remembered (positive)
+     * @return builder
+     */
+    public ExtractorBuilder withNegativeMatchFilter(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity has to be positive, was: " + capacity);
+        }
+        this.negativeMatchFilterSize = capacity;
+        return this;
+    }
+
+    /**
+     * Record per blueprint metrics (attempts, hits, misses by the component that failed, and optionally sampled
+     * latencies), that can be read through {@link ExtractionMetrics#snapshot()}.
+     * Extractions take the same path as they would without metrics. Metrics can't be combined with the combined
+     * automaton, lazy compilation, or reloadable extractors, which {@link #build()} and {@link #buildReloadable()}
+     * reject with an {@link IllegalStateException}.
+     *
+     * @param metrics metrics to record into, that can't be shared with other extractors
+     * @return builder
+     */
+    public ExtractorBuilder withMetrics(ExtractionMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     public Extractor build() throws BlueprintParseError {
         if (blueprints.isEmpty()) {
             throw new BlueprintParseError(INCORRECT_BUILDER_USAGE);
         }
-        if (blueprints.size() == 1) {
-            return new StringExtractor(blueprints.stream().findAny().orElse(""), variableStart, variablePrefix,
-                                       regexSeparator, variableSuffix, failOnStringRemainingAfterExtraction,
-                                       skippedVariable, contextMappedVariable, staticAttachVariable);
+        if (codegen != null) {
+            checkCodegenAvailable();
+        }
+        if (metrics != null && combinedAutomaton) {
+            throw new IllegalStateException("withMetrics() can't be combined with combinedAutomaton(true)");
+        }
+        if (metrics != null && lazyCompilation) {
+            throw new IllegalStateException("withMetrics() can't be combined with lazyCompilation(true)");
+        }
+        Extractor extractor = buildExtractor();
+        if (negativeMatchFilterSize > 0) {
+            extractor = new MissFilteringExtractor(extractor, negativeMatchFilterSize);
+        }
+        if (resultCacheSize > 0) {
+            return new CachingExtractor(extractor, resultCacheSize);
+        }
+        return extractor;
+    }
+
+    /**
+     * Build an extractor whose blueprints can be replaced at runtime, with {@link ReloadableExtractor#reload(List)}.
+     * Lazy and parallel compilation don't apply to it.
+     *
+     * @return extractor that can be reloaded
+     * @throws BlueprintParseError if any of the blueprints couldn't be parsed
+     */
+    public ReloadableExtractor buildReloadable() throws BlueprintParseError {
+        if (blueprints.isEmpty()) {
+            throw new BlueprintParseError(INCORRECT_BUILDER_USAGE);
+        }
+        if (codegen != null) {
+            checkCodegenAvailable();
+        }
+        if (metrics != null) {
+            throw new IllegalStateException("withMetrics() can't be used with reloadable extractors");
+        }
+        return new ReloadableExtractor(new ArrayList<>(blueprints), compiler(), combinedAutomaton, adaptiveOrdering,
+                                       negativeMatchFilterSize, resultCacheSize);
+    }
+
+    private Extractor buildExtractor() throws BlueprintParseError {
+        if (lazyCompilation) {
+            return buildLazyExtractor();
+        }
+        final StringExtractor[] compiled = new StringExtractor[blueprints.size()];
+        final BlueprintParseError[] errors = new BlueprintParseError[blueprints.size()];
+        /* blueprints share their patterns and literals */
+        final CompilationContext context = new CompilationContext();
+        /* the same compiler whether blueprints are compiled serially or in parallel */
+        final BlueprintCompiler compiler = compiler();
+        if (compilationPool != null) {
+            compileAll(compiler, compiled, errors, context, compilationPool);
+        } else if (compilationParallelism > 1 && blueprints.size() > 1) {
+            final ForkJoinPool pool = new ForkJoinPool(compilationParallelism);
+            try {
+                compileAll(compiler, compiled, errors, context, pool);
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            compileRange(compiler, compiled, errors, context, 0, blueprints.size());
+        }
+
+        /* report every blueprint that couldn't be parsed, the first one being the cause */
+        BlueprintParseError firstError = null;
+        for (final BlueprintParseError error : errors) {
+            if (error == null) {
+                continue;
+            }
+            if (firstError == null) {
+                firstError = error;
+            } else {
+                firstError.addSuppressed(error);
+            }
+        }
+        if (firstError != null) {
+            throw firstError;
+        }
+        if (metrics != null) {
+            metrics.bind(new ArrayList<>(blueprints), Arrays.asList(compiled));
+            return new BulkStringExtractor(Arrays.asList(compiled), combinedAutomaton, adaptiveOrdering, metrics);
+        }
+        if (compiled.length == 1) {
+            return compiled[0];
+        }
+        return new BulkStringExtractor(Arrays.asList(compiled), combinedAutomaton, adaptiveOrdering);
+    }
+
+    private Extractor buildLazyExtractor() {
+        return new LazyBulkStringExtractor(new ArrayList<>(blueprints), variableStart, variablePrefix, variableSuffix,
+                                           compiler());
+    }
+
+    /* takes a copy of the settings, so that blueprints compiled later aren't affected by changes to this builder */
+    private BlueprintCompiler compiler() {
+        final char start = variableStart;
+        final char prefix = variablePrefix;
+        final char separator = regexSeparator;
+        final char suffix = variableSuffix;
+        final boolean failOn = failOnStringRemainingAfterExtraction;
+        final String skipped = skippedVariable;
+        final String contextMapped = contextMappedVariable;
+        final String staticAttach = staticAttachVariable;
+        final boolean anchored = anchoredRegexMatching;
+        final Predicate<String> generate = codegen;
+        return (blueprint, context) -> new StringExtractor(blueprint, start, prefix, separator, suffix, failOn,
+                                                           skipped, contextMapped, staticAttach, anchored,
+                                                           generate != null && generate.test(blueprint), context);
+    }
+
+    private void compileAll(final BlueprintCompiler compiler,
+                            final StringExtractor[] compiled,
+                            final BlueprintParseError[] errors,
+                            final CompilationContext context,
+                            final ForkJoinPool pool) {
+        /* a few ranges per thread, so that threads that finish early pick up more */
+        final int rangeSize = Math.max(1, compiled.length / (pool.getParallelism() * 4));
+        final List<Callable<Void>> ranges = new ArrayList<>();
+        for (int from = 0; from < compiled.length; from += rangeSize) {
+            final int start = from;
+            final int end = Math.min(compiled.length, from + rangeSize);
+            ranges.add(() -> {
+                compileRange(compiler, compiled, errors, context, start, end);
+                return null;
+            });
+        }
+        try {
+            for (final Future<Void> range : pool.invokeAll(ranges)) {
+                range.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while compiling blueprints", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void compileRange(final BlueprintCompiler compiler,
+                              final StringExtractor[] compiled,
+                              final BlueprintParseError[] errors,
+                              final CompilationContext context,
+                              final int from,
+                              final int to) {
+        for (int i = from; i < to; i++) {
+            final String blueprint = blueprints.get(i);
+            try {
+                compiled[i] = compiler.compile(blueprint, context);
+            } catch (BlueprintParseError e) {
+                errors[i] = new BlueprintParseError(e.getBlueprintParseErrorCode(), blueprint);
+            }
+        }
+    }
+
+    private static void checkCodegenAvailable() {
+        try {
+            Class.forName("org.objectweb.asm.ClassWriter", false, ExtractorBuilder.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("withCodegen() needs org.ow2.asm:asm on the classpath", e);
         }
-        return new BulkStringExtractor(blueprints, variableStart, variablePrefix, regexSeparator, variableSuffix,
-                                       failOnStringRemainingAfterExtraction, skippedVariable, contextMappedVariable,
-                                       staticAttachVariable);
     }
 
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Matches programs without any regex. Every literal in such a program sits at a fixed offset from the start of the
+ * source, and a last variable (if any) always spans from a fixed offset to the end of the source. Matching is then a
+ * length check, followed by a region comparison per literal, and the spans of all steps are known upfront, so
+ * nothing is allocated while matching.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+class FixedOffsetMatcher {
+    /* adjacent literals are merged */
+    private final String[] literals;
+    private final int[] offsets;
+    /* sum of the lengths of all literals */
+    private final int fixedLength;
+    private final boolean endsWithLast;
+    private final boolean failOnStringRemainingAfterExtraction;
+    private final int[] spans;
+
+    private FixedOffsetMatcher(final String[] literals,
+                               final int[] offsets,
+                               final int fixedLength,
+                               final boolean endsWithLast,
+                               final boolean failOnStringRemainingAfterExtraction,
+                               final int[] spans) {
+        this.literals = literals;
+        this.offsets = offsets;
+        this.fixedLength = fixedLength;
+        this.endsWithLast = endsWithLast;
+        this.failOnStringRemainingAfterExtraction = failOnStringRemainingAfterExtraction;
+        this.spans = spans;
+    }
+
+    /**
+     * @return a matcher for the program, or null if the program has a regex
+     */
+    static FixedOffsetMatcher compile(final Instruction[] program, final boolean failOnStringRemainingAfterExtraction) {
+        val literals = new ArrayList<String>();
+        val offsets = new ArrayList<Integer>();
+        val spans = new ArrayList<Integer>();
+        val pending = new StringBuilder();
+        int offset = 0;
+        boolean endsWithLast = false;
+        for (final Instruction instruction : program) {
+            switch (instruction.getOpcode()) {
+                case Instruction.EXACT_MATCH:
+                case Instruction.EXACT_MATCH_VARIABLE:
+                case Instruction.DISCARDED_EXACT_MATCH:
+                    pending.append(instruction.getOperand());
+                    break;
+                case Instruction.LAST:
+                    offset = flush(pending, offset, literals, offsets);
+                    endsWithLast = true;
+                    /* the end of a last variable is the end of the source, which is only known while matching */
+                    spans.add(offset);
+                    spans.add(offset);
+                    break;
+                case Instruction.CONTEXT_MAPPED:
+                case Instruction.STATIC_ATTACH:
+                    spans.add(offset + pending.length());
+                    spans.add(offset + pending.length());
+                    break;
+                default:
+                    return null;
+            }
+        }
+        final int fixedLength = flush(pending, offset, literals, offsets);
+        return new FixedOffsetMatcher(literals.toArray(new String[0]),
+                                      offsets.stream().mapToInt(Integer::intValue).toArray(),
+                                      fixedLength,
+                                      endsWithLast,
+                                      failOnStringRemainingAfterExtraction,
+                                      spans.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * @return true if the source matches the program
+     */
+    boolean match(final CharSequence source) {
+        final int length = source.length();
+        if (endsWithLast) {
+            /* a last variable needs at least one character */
+            if (length <= fixedLength) {
+                return false;
+            }
+        } else if (failOnStringRemainingAfterExtraction ? length != fixedLength : length < fixedLength) {
+            return false;
+        }
+        for (int i = 0; i < literals.length; i++) {
+            if (!Utils.regionMatches(source, offsets[i], literals[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return spans of all steps, same as what {@link StringExtractor#match(CharSequence, int[])} records, except that
+     * a last variable ends at its start (it always extends to the end of the source). Shared, must not be modified.
+     */
+    int[] spans() {
+        return spans;
+    }
+
+    private static int flush(final StringBuilder pending,
+                             final int offset,
+                             final List<String> literals,
+                             final List<Integer> offsets) {
+        if (pending.length() == 0) {
+            return offset;
+        }
+        literals.add(pending.toString());
+        offsets.add(offset);
+        final int next = offset + pending.length();
+        pending.setLength(0);
+        return next;
+    }
+}
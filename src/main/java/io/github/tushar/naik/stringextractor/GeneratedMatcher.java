@@ -0,0 +1,30 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+/**
+ * Base class of matchers generated by {@link BlueprintCodegen}, that match a single blueprint in straight-line code.
+ * Generated classes are defined in this package (and class loader), so they reach package-private members directly.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+abstract class GeneratedMatcher {
+
+    /**
+     * Same as {@link StringExtractor#match(CharSequence, int[])}, for the blueprint this was generated for
+     */
+    abstract boolean match(CharSequence source, int[] spans);
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * A single step of a compiled blueprint program.
+ * Each {@link ParsedComponent} is lowered into exactly one instruction, so that extraction can be interpreted in a
+ * tight loop over an array, instead of visiting components on every call.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+class Instruction {
+    static final int NO_SLOT = -1;
+
+    /* opcodes */
+    static final int EXACT_MATCH = 0;
+    static final int REGEX_MATCH = 1;
+    static final int DISCARDED_REGEX_MATCH = 2;
+    static final int EXACT_MATCH_VARIABLE = 3;
+    static final int DISCARDED_EXACT_MATCH = 4;
+    static final int LAST = 5;
+    static final int CONTEXT_MAPPED = 6;
+    static final int STATIC_ATTACH = 7;
+
+    int opcode;
+
+    /* literal to be matched, or the mapping key / static string to be attached */
+    String operand;
+
+    ReusableMatcher matcher;
+
+    String variableName;
+
+    /* index of the variable in the blueprint's variable schema, or NO_SLOT if nothing is stored */
+    int slot;
+
+    /* true if the matched value has to be retained in the extracted string (skipped variables) */
+    boolean retained;
+
+    static Instruction exactMatch(final String characters) {
+        return new Instruction(EXACT_MATCH, characters, null, null, NO_SLOT, false);
+    }
+
+    static Instruction regexMatch(final String variableName, final ReusableMatcher matcher, final int slot,
+                                  final boolean retained) {
+        return new Instruction(REGEX_MATCH, null, matcher, variableName, slot, retained);
+    }
+
+    static Instruction discardedRegexMatch(final ReusableMatcher matcher) {
+        return new Instruction(DISCARDED_REGEX_MATCH, null, matcher, null, NO_SLOT, false);
+    }
+
+    static Instruction exactMatchVariable(final String variableName, final String matchString, final int slot,
+                                          final boolean retained) {
+        return new Instruction(EXACT_MATCH_VARIABLE, matchString, null, variableName, slot, retained);
+    }
+
+    static Instruction discardedExactMatch(final String matchString) {
+        return new Instruction(DISCARDED_EXACT_MATCH, matchString, null, null, NO_SLOT, false);
+    }
+
+    static Instruction last(final String variableName, final int slot, final boolean retained) {
+        return new Instruction(LAST, null, null, variableName, slot, retained);
+    }
+
+    static Instruction contextMapped(final String mappingString) {
+        return new Instruction(CONTEXT_MAPPED, mappingString, null, null, NO_SLOT, false);
+    }
+
+    static Instruction staticAttach(final String staticAttachString) {
+        return new Instruction(STATIC_ATTACH, staticAttachString, null, null, NO_SLOT, false);
+    }
+
+    /**
+     * @return true if this instruction only checks for a fixed string at the cursor
+     */
+    boolean isLiteral() {
+        return opcode == EXACT_MATCH || opcode == EXACT_MATCH_VARIABLE || opcode == DISCARDED_EXACT_MATCH;
+    }
+}
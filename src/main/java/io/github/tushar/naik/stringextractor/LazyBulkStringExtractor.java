@@ -0,0 +1,169 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.val;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Like a {@link BulkStringExtractor}, but blueprints are only compiled when a source first reaches them.
+ * <p>
+ * Upfront, every blueprint is only scanned for the literal it starts with, and the number of literal characters it
+ * has outside of variables (which no matching source can be shorter than). Sources are dispatched on these, just like
+ * a {@link BulkStringExtractor} does on leading literals, so a blueprint is compiled only once a source passes both.
+ * Blueprints that never get such a source are never compiled, and don't take up any heap for regexes.
+ * <p>
+ * Since blueprints are parsed late, a blueprint that can't be parsed fails the first extraction that reaches it, with
+ * an {@link IllegalStateException}.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+class LazyBulkStringExtractor implements Extractor {
+    private final List<LazyBlueprint> blueprints;
+    private final LeadingLiteralTrie leadingLiteralTrie;
+    /* blueprints compiled later still share their patterns and literals with those compiled earlier */
+    private final CompilationContext context = new CompilationContext();
+
+    LazyBulkStringExtractor(final List<String> blueprints,
+                            final char variableStart,
+                            final char variablePrefix,
+                            final char variableSuffix,
+                            final BlueprintCompiler compiler) {
+        this.blueprints = blueprints.stream()
+                .map(blueprint -> new LazyBlueprint(blueprint, variableStart, variablePrefix, variableSuffix,
+                                                    compiler, context))
+                .collect(Collectors.toList());
+        this.leadingLiteralTrie = new LeadingLiteralTrie(this.blueprints.stream()
+                                                                 .map(blueprint -> blueprint.leadingLiteral)
+                                                                 .collect(Collectors.toList()));
+    }
+
+    @Override
+    public ExtractionResult extractFrom(final String source, final Map<String, String> contextMap) {
+        return extractFrom((CharSequence) source, contextMap);
+    }
+
+    @Override
+    public ExtractionResult extractFrom(final CharSequence source, final Map<String, String> contextMap) {
+        final int[] prefixed = leadingLiteralTrie.prefixedBy(source);
+        final int[] unprefixed = leadingLiteralTrie.unprefixed();
+
+        /* merge both sorted candidate lists, so that the first declared blueprint still wins */
+        int i = 0;
+        int j = 0;
+        while (i < prefixed.length || j < unprefixed.length) {
+            final int next;
+            if (j == unprefixed.length || (i < prefixed.length && prefixed[i] < unprefixed[j])) {
+                next = prefixed[i++];
+            } else {
+                next = unprefixed[j++];
+            }
+            val blueprint = blueprints.get(next);
+            if (source.length() < blueprint.minimumLength) {
+                continue;
+            }
+            final ExtractionResult extractionResult = blueprint.compiled().extractFrom(source, contextMap);
+            if (!extractionResult.isError()) {
+                return extractionResult;
+            }
+        }
+        return ExtractionResult.error();
+    }
+
+    /**
+     * @return number of blueprints that have been compiled so far
+     */
+    int compiledCount() {
+        return (int) blueprints.stream().filter(blueprint -> blueprint.compiled != null).count();
+    }
+
+    private static class LazyBlueprint {
+        private final String blueprint;
+        private final String leadingLiteral;
+        private final int minimumLength;
+        private final BlueprintCompiler compiler;
+        private final CompilationContext context;
+        private volatile StringExtractor compiled;
+        private volatile BlueprintParseError failure;
+
+        private LazyBlueprint(final String blueprint,
+                              final char variableStart,
+                              final char variablePrefix,
+                              final char variableSuffix,
+                              final BlueprintCompiler compiler,
+                              final CompilationContext context) {
+            this.blueprint = blueprint;
+            this.compiler = compiler;
+            this.context = context;
+
+            /* same traversal as the parser, only counting the characters outside variables */
+            val chars = blueprint.toCharArray();
+            val leading = new StringBuilder();
+            boolean variableSeen = false;
+            boolean variableIsBeingExtracted = false;
+            int literalLength = 0;
+            int index = 0;
+            while (index < chars.length) {
+                if (StringExtractor.isVariableStart(variableStart, variablePrefix, chars, index)) {
+                    variableSeen = true;
+                    variableIsBeingExtracted = true;
+                    index += 3;
+                } else if (variableIsBeingExtracted && StringExtractor.isVariableEnd(variableSuffix, chars, index)) {
+                    variableIsBeingExtracted = false;
+                    index += 2;
+                } else {
+                    if (!variableIsBeingExtracted) {
+                        literalLength++;
+                        if (!variableSeen) {
+                            leading.append(chars[index]);
+                        }
+                    }
+                    index++;
+                }
+            }
+            this.leadingLiteral = leading.toString();
+            this.minimumLength = literalLength;
+        }
+
+        private StringExtractor compiled() {
+            StringExtractor result = compiled;
+            if (result == null) {
+                synchronized (this) {
+                    result = compiled;
+                    if (result == null) {
+                        result = compile();
+                        compiled = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        private StringExtractor compile() {
+            if (failure == null) {
+                try {
+                    return compiler.compile(blueprint, context);
+                } catch (BlueprintParseError e) {
+                    failure = new BlueprintParseError(e.getBlueprintParseErrorCode(), blueprint);
+                }
+            }
+            throw new IllegalStateException(failure.getMessage(), failure);
+        }
+    }
+}
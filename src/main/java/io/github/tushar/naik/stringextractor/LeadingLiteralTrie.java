@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A trie over the leading literals of a list of blueprints.
+ * Given a source, it returns (in declaration order) the indices of all blueprints whose leading literal is a prefix
+ * of the source. Blueprints without a leading literal can match any source, and are kept aside as
+ * {@link #unprefixed()}.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+class LeadingLiteralTrie {
+    private static final int[] NONE = new int[0];
+
+    private final Node root;
+    private final int[] unprefixed;
+
+    /**
+     * @param leadingLiterals leading literal of each blueprint, indexed by blueprint (empty if there is none)
+     */
+    LeadingLiteralTrie(final List<String> leadingLiterals) {
+        val builder = new NodeBuilder();
+        val withoutPrefix = new ArrayList<Integer>();
+        for (int i = 0; i < leadingLiterals.size(); i++) {
+            val literal = leadingLiterals.get(i);
+            if (literal.isEmpty()) {
+                withoutPrefix.add(i);
+                continue;
+            }
+            NodeBuilder current = builder;
+            for (int j = 0; j < literal.length(); j++) {
+                current = current.children.computeIfAbsent(literal.charAt(j), k -> new NodeBuilder());
+            }
+            current.terminals.add(i);
+        }
+        this.root = builder.build(NONE);
+        this.unprefixed = withoutPrefix.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @param source source string
+     * @return sorted indices of blueprints, whose leading literal is a prefix of the source
+     */
+    int[] prefixedBy(final CharSequence source) {
+        Node current = root;
+        final int length = source.length();
+        for (int i = 0; i < length; i++) {
+            val next = current.child(source.charAt(i));
+            if (next == null) {
+                break;
+            }
+            current = next;
+        }
+        return current.candidates;
+    }
+
+    /**
+     * @return sorted indices of blueprints that have no leading literal
+     */
+    int[] unprefixed() {
+        return unprefixed;
+    }
+
+    private static class Node {
+        private final char[] keys;
+        private final Node[] children;
+        /* all blueprints whose leading literal is a prefix of the path to this node, shared with the parent if this
+        node doesn't terminate any literal */
+        private final int[] candidates;
+
+        private Node(final char[] keys, final Node[] children, final int[] candidates) {
+            this.keys = keys;
+            this.children = children;
+            this.candidates = candidates;
+        }
+
+        private Node child(final char key) {
+            if (keys.length == 1) {
+                return keys[0] == key ? children[0] : null;
+            }
+            val index = Arrays.binarySearch(keys, key);
+            return index < 0 ? null : children[index];
+        }
+    }
+
+    private static class NodeBuilder {
+        private final Map<Character, NodeBuilder> children = new TreeMap<>();
+        private final List<Integer> terminals = new ArrayList<>();
+
+        private Node build(final int[] inherited) {
+            int[] candidates = inherited;
+            if (!terminals.isEmpty()) {
+                /* candidates are always tried in declaration order */
+                candidates = Arrays.copyOf(inherited, inherited.length + terminals.size());
+                for (int i = 0; i < terminals.size(); i++) {
+                    candidates[inherited.length + i] = terminals.get(i);
+                }
+                Arrays.sort(candidates);
+            }
+            val keys = new char[children.size()];
+            val nodes = new Node[children.size()];
+            int index = 0;
+            for (final Map.Entry<Character, NodeBuilder> entry : children.entrySet()) {
+                keys[index] = entry.getKey();
+                nodes[index] = entry.getValue().build(candidates);
+                index++;
+            }
+            return new Node(keys, nodes, candidates);
+        }
+    }
+}
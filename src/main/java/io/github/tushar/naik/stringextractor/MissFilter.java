@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A compact, fixed size set of 64-bit fingerprints of sources that are known to match no blueprint.
+ * <p>
+ * Fingerprints are stored in buckets of {@link #BUCKET_SIZE} slots in an {@link AtomicLongArray}, so memory is
+ * bounded by the capacity, and concurrent lookups and inserts never block. Once as many misses as the capacity have
+ * been recorded, the table is cleared, so that a changing stream of misses doesn't leave it full of stale entries.
+ * <p>
+ * Unlike a bloom filter, a fingerprint is only ever reported for a source that was recorded, unless two sources
+ * land in the same bucket with the same 64-bit fingerprint.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+class MissFilter {
+    private static final int BUCKET_SIZE = 4;
+    private static final long EMPTY = 0L;
+
+    private final AtomicLongArray fingerprints;
+    private final int bucketShift;
+    private final int capacity;
+    private final AtomicInteger recordedSinceReset = new AtomicInteger();
+
+    /**
+     * @param capacity number of misses that can be held, rounded up to a power of two
+     */
+    MissFilter(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity has to be positive, was: " + capacity);
+        }
+        final int buckets = Integer.highestOneBit(Math.max(1, (capacity + BUCKET_SIZE - 1) / BUCKET_SIZE - 1)) << 1;
+        this.fingerprints = new AtomicLongArray(buckets * BUCKET_SIZE);
+        this.bucketShift = 32 - Integer.numberOfTrailingZeros(buckets);
+        this.capacity = buckets * BUCKET_SIZE;
+    }
+
+    /**
+     * @return true if the source has been recorded as a miss
+     */
+    boolean mightContain(final CharSequence source) {
+        final long fingerprint = fingerprint(source);
+        final int bucket = bucket(source, fingerprint);
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            if (fingerprints.get(bucket + i) == fingerprint) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Record a source that doesn't match any blueprint
+     */
+    void record(final CharSequence source) {
+        if (recordedSinceReset.incrementAndGet() > capacity) {
+            reset();
+        }
+        final long fingerprint = fingerprint(source);
+        final int bucket = bucket(source, fingerprint);
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            final long existing = fingerprints.get(bucket + i);
+            if (existing == fingerprint
+                    || (existing == EMPTY && fingerprints.compareAndSet(bucket + i, EMPTY, fingerprint))) {
+                return;
+            }
+        }
+        /* bucket is full, replace some entry in it */
+        fingerprints.set(bucket + (int) (fingerprint >>> 62), fingerprint);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    private void reset() {
+        recordedSinceReset.set(0);
+        for (int i = 0; i < fingerprints.length(); i++) {
+            fingerprints.lazySet(i, EMPTY);
+        }
+    }
+
+    private int bucket(final CharSequence source, final long fingerprint) {
+        /* String caches its hashCode, which is independent of the fingerprint. It is spread using fibonacci hashing,
+        since hash codes of similar strings are close to each other. Other char sequences are hashed the same way as
+        a String, so that equal contents land in the same bucket */
+        final int hash = source instanceof String ? source.hashCode() : stringHashCode(source);
+        return ((hash * 0x9E3779B9) >>> bucketShift) * BUCKET_SIZE;
+    }
+
+    private static int stringHashCode(final CharSequence source) {
+        int hash = 0;
+        final int length = source.length();
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * @return a 64-bit FNV-1a hash of the characters, with a final avalanche mix (never {@link #EMPTY})
+     */
+    private static long fingerprint(final CharSequence source) {
+        long hash = 0xcbf29ce484222325L;
+        final int length = source.length();
+        for (int i = 0; i < length; i++) {
+            hash ^= source.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1L : hash;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An extractor that remembers sources that none of the delegate's blueprints matched, in a {@link MissFilter}, and
+ * short-circuits them with {@link ExtractionResult#error()} the next time around.
+ * This is safe irrespective of the context map, since the context never decides whether a blueprint matches.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+class MissFilteringExtractor implements Extractor {
+    private final Extractor delegate;
+    private final MissFilter missFilter;
+    private final LongAdder shortCircuits = new LongAdder();
+
+    MissFilteringExtractor(final Extractor delegate, final int capacity) {
+        this.delegate = delegate;
+        this.missFilter = new MissFilter(capacity);
+    }
+
+    @Override
+    public ExtractionResult extractFrom(final String source, final Map<String, String> contextMap) {
+        return extractFrom((CharSequence) source, contextMap);
+    }
+
+    @Override
+    public ExtractionResult extractFrom(final CharSequence source, final Map<String, String> contextMap) {
+        if (missFilter.mightContain(source)) {
+            shortCircuits.increment();
+            return ExtractionResult.error();
+        }
+        final ExtractionResult extractionResult = delegate.extractFrom(source, contextMap);
+        if (extractionResult.isError()) {
+            missFilter.record(source);
+        }
+        return extractionResult;
+    }
+
+    /**
+     * @return number of extractions that were rejected by the filter, without trying any blueprint
+     */
+    long shortCircuitCount() {
+        return shortCircuits.sum();
+    }
+}
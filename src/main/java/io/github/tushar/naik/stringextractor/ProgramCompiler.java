@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import io.github.tushar.naik.stringextractor.variable.ContextMappedVariable;
+import io.github.tushar.naik.stringextractor.variable.DiscardedExactMatchVariable;
+import io.github.tushar.naik.stringextractor.variable.DiscardedRegexMatchVariable;
+import io.github.tushar.naik.stringextractor.variable.ExactMatchVariable;
+import io.github.tushar.naik.stringextractor.variable.LastVariable;
+import io.github.tushar.naik.stringextractor.variable.RegexMatchVariable;
+import io.github.tushar.naik.stringextractor.variable.StaticAttachVariable;
+import io.github.tushar.naik.stringextractor.variable.VariableVisitor;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lowers the {@link ParsedComponent}s of a blueprint into a flat array of {@link Instruction}s.
+ * Variables get a slot in the order in which their names first appear in the blueprint.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+class ProgramCompiler {
+    private final String skippedVariable;
+    private final CompilationContext context;
+    private final Map<String, Integer> slots = new LinkedHashMap<>();
+
+    ProgramCompiler(final String skippedVariable, final CompilationContext context) {
+        this.skippedVariable = skippedVariable;
+        this.context = context;
+    }
+
+    Instruction[] compile(final List<ParsedComponent> parsedComponents) {
+        final List<Instruction> program = new ArrayList<>(parsedComponents.size());
+        for (final ParsedComponent parsedComponent : parsedComponents) {
+            program.add(parsedComponent.accept(new ParsedComponentVisitor<Instruction>() {
+                @Override
+                public Instruction visit(final ExactMatchComponent exactMatchComponent) {
+                    return Instruction.exactMatch(exactMatchComponent.getCharacters());
+                }
+
+                @Override
+                public Instruction visit(final VariableComponent variableComponent) {
+                    return variableComponent.getVariable().accept(new VariableLowering());
+                }
+            }));
+        }
+        return program.toArray(new Instruction[0]);
+    }
+
+    /**
+     * @return names of the variables stored by the compiled program, indexed by their slot
+     */
+    ExtractionSchema schema() {
+        return new ExtractionSchema(new ArrayList<>(slots.keySet()));
+    }
+
+    private int slotOf(final String variableName) {
+        return slots.computeIfAbsent(variableName, k -> slots.size());
+    }
+
+    private boolean isSkipped(final String variableName) {
+        return skippedVariable.equals(variableName);
+    }
+
+    private class VariableLowering implements VariableVisitor<Instruction> {
+        @Override
+        public Instruction visit(final RegexMatchVariable regexMatchVariable) {
+            val variableName = regexMatchVariable.getVariableName();
+            /* skipped regex variables are never stored, so they don't need a slot */
+            return Instruction.regexMatch(variableName, context.matcher(regexMatchVariable.getPattern()),
+                                          isSkipped(variableName) ? Instruction.NO_SLOT : slotOf(variableName),
+                                          isSkipped(variableName));
+        }
+
+        @Override
+        public Instruction visit(final DiscardedRegexMatchVariable discardedRegexMatchVariable) {
+            return Instruction.discardedRegexMatch(context.matcher(discardedRegexMatchVariable.getPattern()));
+        }
+
+        @Override
+        public Instruction visit(final LastVariable lastVariable) {
+            val variableName = lastVariable.getVariableName();
+            return Instruction.last(variableName, slotOf(variableName), isSkipped(variableName));
+        }
+
+        @Override
+        public Instruction visit(final ExactMatchVariable exactMatchVariable) {
+            val variableName = exactMatchVariable.getVariableName();
+            return Instruction.exactMatchVariable(variableName, exactMatchVariable.getMatchString(),
+                                                  slotOf(variableName), isSkipped(variableName));
+        }
+
+        @Override
+        public Instruction visit(final DiscardedExactMatchVariable discardedExactMatchVariable) {
+            return Instruction.discardedExactMatch(discardedExactMatchVariable.getMatchString());
+        }
+
+        @Override
+        public Instruction visit(final ContextMappedVariable contextMappedVariable) {
+            return Instruction.contextMapped(contextMappedVariable.getMappingString());
+        }
+
+        @Override
+        public Instruction visit(final StaticAttachVariable staticAttachVariable) {
+            return Instruction.staticAttach(staticAttachVariable.getStaticAttachString());
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.github.tushar.naik.stringextractor.BlueprintParseErrorCode.INCORRECT_BUILDER_USAGE;
+
+/**
+ * An extractor whose blueprints can be replaced at runtime, while it is being used.
+ * <p>
+ * A {@link #reload(List)} only compiles blueprints that weren't there before, and reuses the compiled blueprints
+ * (along with their regexes) for the ones that were. The new set of blueprints is then published with a single
+ * atomic swap, so extractions never take a lock: an extraction that is in flight during a reload finishes on the set
+ * of blueprints it started with. Reloads are serialized amongst themselves.
+ * <p>
+ * Result caches and negative match filters are rebuilt empty on every reload, since their contents may no longer
+ * hold for the new blueprints. With adaptive ordering, how often each reused blueprint matched is carried over, so
+ * hot blueprints are still tried first right after a reload. Statistics of the cache and the filter are accumulated
+ * across reloads.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+public class ReloadableExtractor implements Extractor {
+    private final BlueprintCompiler compiler;
+    private final boolean combinedAutomaton;
+    private final boolean adaptiveOrdering;
+    private final int negativeMatchFilterSize;
+    private final int resultCacheSize;
+    private final AtomicReference<Generation> current = new AtomicReference<>();
+    /* statistics of the caches and filters of generations that were replaced, guarded by this */
+    private CacheStats retiredCacheStats = new CacheStats(0, 0, 0, 0, 0);
+    private long retiredShortCircuits;
+
+    @SuppressWarnings("java:S107")
+    ReloadableExtractor(final List<String> blueprints,
+                        final BlueprintCompiler compiler,
+                        final boolean combinedAutomaton,
+                        final boolean adaptiveOrdering,
+                        final int negativeMatchFilterSize,
+                        final int resultCacheSize) throws BlueprintParseError {
+        this.compiler = compiler;
+        this.combinedAutomaton = combinedAutomaton;
+        this.adaptiveOrdering = adaptiveOrdering;
+        this.negativeMatchFilterSize = negativeMatchFilterSize;
+        this.resultCacheSize = resultCacheSize;
+        this.current.set(compile(blueprints, null));
+    }
+
+    @Override
+    public ExtractionResult extractFrom(final String source, final Map<String, String> contextMap) {
+        return current.get().extractor.extractFrom(source, contextMap);
+    }
+
+    @Override
+    public ExtractionResult extractFrom(final CharSequence source, final Map<String, String> contextMap) {
+        return current.get().extractor.extractFrom(source, contextMap);
+    }
+
+    /**
+     * Replace the blueprints of this extractor. Nothing is replaced if any of the new blueprints couldn't be parsed.
+     *
+     * @param blueprints new blueprints, in the order they are to be tried
+     * @return number of blueprints that had to be compiled, the rest being reused
+     * @throws BlueprintParseError if any of the blueprints couldn't be parsed
+     */
+    public synchronized int reload(final List<String> blueprints) throws BlueprintParseError {
+        final Generation previous = current.get();
+        final Generation next = compile(new ArrayList<>(blueprints), previous);
+        current.set(next);
+        /* extractions still in flight on the previous generation may not be counted */
+        if (previous.cache != null) {
+            final CacheStats stats = previous.cache.stats();
+            retiredCacheStats = new CacheStats(retiredCacheStats.getHitCount() + stats.getHitCount(),
+                                               retiredCacheStats.getMissCount() + stats.getMissCount(),
+                                               retiredCacheStats.getEvictionCount() + stats.getEvictionCount(),
+                                               retiredCacheStats.getBypassCount() + stats.getBypassCount(),
+                                               0);
+        }
+        if (previous.missFilter != null) {
+            retiredShortCircuits += previous.missFilter.shortCircuitCount();
+        }
+        return next.freshlyCompiled;
+    }
+
+    /**
+     * @return statistics of the result cache, accumulated across reloads (the size being that of the current cache)
+     * @throws IllegalStateException if this extractor was built without {@link ExtractorBuilder#withResultCache(int)}
+     */
+    public synchronized CacheStats cacheStats() {
+        final CachingExtractor cache = current.get().cache;
+        if (cache == null) {
+            throw new IllegalStateException("Built without a result cache");
+        }
+        final CacheStats stats = cache.stats();
+        return new CacheStats(retiredCacheStats.getHitCount() + stats.getHitCount(),
+                              retiredCacheStats.getMissCount() + stats.getMissCount(),
+                              retiredCacheStats.getEvictionCount() + stats.getEvictionCount(),
+                              retiredCacheStats.getBypassCount() + stats.getBypassCount(),
+                              stats.getSize());
+    }
+
+    /**
+     * @return number of extractions that the negative match filter rejected without trying any blueprint,
+     * accumulated across reloads
+     * @throws IllegalStateException if this extractor was built without
+     *                               {@link ExtractorBuilder#withNegativeMatchFilter(int)}
+     */
+    public synchronized long negativeMatchFilterHitCount() {
+        final MissFilteringExtractor missFilter = current.get().missFilter;
+        if (missFilter == null) {
+            throw new IllegalStateException("Built without a negative match filter");
+        }
+        return retiredShortCircuits + missFilter.shortCircuitCount();
+    }
+
+    /**
+     * @return blueprints that are currently in use
+     */
+    public List<String> blueprints() {
+        return current.get().blueprints;
+    }
+
+    /* previous is null for the first generation */
+    private Generation compile(final List<String> blueprints,
+                               final Generation previous) throws BlueprintParseError {
+        if (blueprints.isEmpty()) {
+            throw new BlueprintParseError(INCORRECT_BUILDER_USAGE);
+        }
+        final Map<String, StringExtractor> compiled = new HashMap<>();
+        /* a fresh context per reload, so that patterns of removed blueprints aren't held on to */
+        final CompilationContext context = new CompilationContext();
+        final List<StringExtractor> stringExtractors = new ArrayList<>(blueprints.size());
+        BlueprintParseError firstError = null;
+        int freshlyCompiled = 0;
+        for (final String blueprint : blueprints) {
+            StringExtractor stringExtractor = compiled.get(blueprint);
+            if (stringExtractor == null) {
+                stringExtractor = previous == null ? null : previous.compiled.get(blueprint);
+            }
+            if (stringExtractor == null) {
+                try {
+                    stringExtractor = compiler.compile(blueprint, context);
+                    freshlyCompiled++;
+                } catch (BlueprintParseError e) {
+                    /* report every blueprint that couldn't be parsed, the first one being the cause */
+                    final BlueprintParseError error = new BlueprintParseError(e.getBlueprintParseErrorCode(),
+                                                                              blueprint);
+                    if (firstError == null) {
+                        firstError = error;
+                    } else {
+                        firstError.addSuppressed(error);
+                    }
+                    continue;
+                }
+            }
+            compiled.put(blueprint, stringExtractor);
+            stringExtractors.add(stringExtractor);
+        }
+        if (firstError != null) {
+            throw firstError;
+        }
+
+        final BulkStringExtractor bulk = stringExtractors.size() == 1
+                                         ? null
+                                         : new BulkStringExtractor(stringExtractors, combinedAutomaton,
+                                                                   adaptiveOrdering);
+        if (bulk != null && previous != null && previous.bulk != null) {
+            bulk.carryOverHits(previous.bulk);
+        }
+        Extractor extractor = bulk == null ? stringExtractors.get(0) : bulk;
+        MissFilteringExtractor missFilter = null;
+        if (negativeMatchFilterSize > 0) {
+            missFilter = new MissFilteringExtractor(extractor, negativeMatchFilterSize);
+            extractor = missFilter;
+        }
+        CachingExtractor cache = null;
+        if (resultCacheSize > 0) {
+            cache = new CachingExtractor(extractor, resultCacheSize);
+            extractor = cache;
+        }
+        return new Generation(Collections.unmodifiableList(blueprints), compiled, extractor, bulk, missFilter, cache,
+                              freshlyCompiled);
+    }
+
+    private static class Generation {
+        private final List<String> blueprints;
+        private final Map<String, StringExtractor> compiled;
+        private final Extractor extractor;
+        /* the parts of the extractor that hold state worth keeping track of, null if not used */
+        private final BulkStringExtractor bulk;
+        private final MissFilteringExtractor missFilter;
+        private final CachingExtractor cache;
+        private final int freshlyCompiled;
+
+        @SuppressWarnings("java:S107")
+        private Generation(final List<String> blueprints,
+                           final Map<String, StringExtractor> compiled,
+                           final Extractor extractor,
+                           final BulkStringExtractor bulk,
+                           final MissFilteringExtractor missFilter,
+                           final CachingExtractor cache,
+                           final int freshlyCompiled) {
+            this.blueprints = blueprints;
+            this.compiled = compiled;
+            this.extractor = extractor;
+            this.bulk = bulk;
+            this.missFilter = missFilter;
+            this.cache = cache;
+            this.freshlyCompiled = freshlyCompiled;
+        }
+    }
+}
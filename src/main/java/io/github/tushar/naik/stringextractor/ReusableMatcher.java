@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.Getter;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hands out a {@link Matcher} for a pattern, that is cached per thread and reused across extractions.
+ * Patterns that are a single character class with a quantifier, also come with a {@link CharClassMatcher}, that
+ * matches them without a {@link Matcher}.
+ * A matcher is reset to an empty source once a match is done with it, so that idle threads don't keep the last
+ * source they matched reachable.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+class ReusableMatcher {
+    @Getter
+    private final Pattern pattern;
+    /* null, unless the pattern is a simple character class */
+    @Getter
+    private final CharClassMatcher charClass;
+    private final ThreadLocal<Matcher> matchers;
+
+    ReusableMatcher(final Pattern pattern) {
+        this.pattern = pattern;
+        this.charClass = CharClassMatcher.of(pattern);
+        this.matchers = ThreadLocal.withInitial(() -> pattern.matcher(""));
+    }
+
+    /**
+     * Matches the pattern in the rest of the source, after the cursor, recording the region matched in spans.
+     *
+     * @param source   source to be matched
+     * @param cursor   start of the rest of the source
+     * @param anchored true if the match has to start right at the cursor
+     * @param spans    spans of the extraction
+     * @param offset   index in spans to record the [start, end) of the match at
+     * @return the cursor after the match, or -1 if the pattern didn't match
+     */
+    int match(final CharSequence source,
+              final int cursor,
+              final boolean anchored,
+              final int[] spans,
+              final int offset) {
+        /* the region makes the matcher behave exactly as it would on the remaining substring */
+        final Matcher matcher = matchers.get().reset(source).region(cursor, source.length());
+        try {
+            if (!(anchored ? matcher.lookingAt() : matcher.find())) {
+                return -1;
+            }
+            spans[offset] = matcher.start();
+            spans[offset + 1] = matcher.end();
+            return cursor + matcher.end() - matcher.start();
+        } finally {
+            matcher.reset("");
+        }
+    }
+}
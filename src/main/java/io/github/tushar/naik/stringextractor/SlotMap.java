@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read only map of extractions, backed by an array of values indexed by the slots of an {@link ExtractionSchema}.
+ * A result only allocates the array of values, instead of a hash table and an entry per variable.
+ * Slots that hold null are treated as absent.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+class SlotMap extends AbstractMap<String, Object> {
+    private final ExtractionSchema schema;
+    private final Object[] values;
+    private final int size;
+
+    SlotMap(final ExtractionSchema schema, final Object[] values) {
+        this.schema = schema;
+        this.values = values;
+        int present = 0;
+        for (final Object value : values) {
+            if (value != null) {
+                present++;
+            }
+        }
+        this.size = present;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Object get(final Object key) {
+        final int slot = schema.slotOf(key);
+        return slot == Instruction.NO_SLOT ? null : values[slot];
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private class EntryIterator implements Iterator<Entry<String, Object>> {
+        private int next = advance(0);
+
+        private int advance(final int from) {
+            int slot = from;
+            while (slot < values.length && values[slot] == null) {
+                slot++;
+            }
+            return slot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Map.Entry<String, Object> entry = new SimpleImmutableEntry<>(schema.name(next), values[next]);
+            next = advance(next + 1);
+            return entry;
+        }
+    }
+}
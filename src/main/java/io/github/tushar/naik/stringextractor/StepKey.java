@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.Value;
+import lombok.val;
+
+/**
+ * Identifies steps (instructions that aren't literals) that behave identically while matching, irrespective of what
+ * is done with the matched value. Two steps with the same key, applied at the same cursor of the same source, always
+ * produce the same result.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+@Value
+class StepKey {
+    int kind;
+    String pattern;
+    int flags;
+    boolean anchored;
+
+    static StepKey of(final Instruction instruction, final boolean anchored) {
+        switch (instruction.getOpcode()) {
+            case Instruction.REGEX_MATCH:
+            case Instruction.DISCARDED_REGEX_MATCH:
+                val pattern = instruction.getMatcher().getPattern();
+                return new StepKey(Instruction.REGEX_MATCH, pattern.pattern(), pattern.flags(), anchored);
+            case Instruction.LAST:
+                return new StepKey(Instruction.LAST, null, 0, false);
+            default:
+                /* all non-consuming steps match alike */
+                return new StepKey(Instruction.STATIC_ATTACH, null, 0, false);
+        }
+    }
+
+    boolean isConsuming() {
+        return kind != Instruction.STATIC_ATTACH;
+    }
+
+    boolean isLast() {
+        return kind == Instruction.LAST;
+    }
+}
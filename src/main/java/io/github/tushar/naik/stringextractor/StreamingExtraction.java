@@ -0,0 +1,255 @@
+/*
+ * Copyright 2022. Tushar Naik
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.tushar.naik.stringextractor;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+/**
+ * Extracts from newline delimited sources (one source per line), without holding more than a line at a time.
+ * <p>
+ * Files are memory mapped in chunks, that end at line boundaries, and the chunks may be extracted from in parallel.
+ * Files are expected to be UTF-8 (or ASCII) encoded. Lines end at {@code \n}, {@code \r} or {@code \r\n}, as in
+ * {@link BufferedReader#readLine()}, so that files and readers of the same content yield the same lines.
+ *
+ * @author tushar.naik
+ * @since 1.5.0
+ */
+@UtilityClass
+public class StreamingExtraction {
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = 1 << 26;
+    /* chunks per thread, so that threads that are done early can pick up more */
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int BOUNDARY_SCAN_SIZE = 8192;
+
+    /**
+     * Extract from each line read from the reader, in order
+     *
+     * @param extractor extractor to apply to each line
+     * @param reader    reader of newline delimited sources
+     * @param consumer  receives each line, along with the result of extracting from it
+     * @throws IOException if the reader fails
+     */
+    public void extractLines(final Extractor extractor,
+                             final Reader reader,
+                             final BiConsumer<String, ExtractionResult> consumer) throws IOException {
+        final BufferedReader bufferedReader = reader instanceof BufferedReader
+                                              ? (BufferedReader) reader
+                                              : new BufferedReader(reader);
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            consumer.accept(line, extractor.extractFrom(line));
+        }
+    }
+
+    /**
+     * Extract from each line read from the input stream, in order
+     *
+     * @param extractor   extractor to apply to each line
+     * @param inputStream input stream of newline delimited sources
+     * @param charset     charset of the input stream
+     * @param consumer    receives each line, along with the result of extracting from it
+     * @throws IOException if the input stream fails
+     */
+    public void extractLines(final Extractor extractor,
+                             final InputStream inputStream,
+                             final Charset charset,
+                             final BiConsumer<String, ExtractionResult> consumer) throws IOException {
+        extractLines(extractor, new InputStreamReader(inputStream, charset), consumer);
+    }
+
+    /**
+     * Extract from each line of a UTF-8 encoded file, in order, in the calling thread
+     *
+     * @param extractor extractor to apply to each line
+     * @param file      file of newline delimited sources
+     * @param consumer  receives each line, along with the result of extracting from it
+     * @throws IOException if the file can't be read
+     */
+    public void extractLines(final Extractor extractor,
+                             final Path file,
+                             final BiConsumer<String, ExtractionResult> consumer) throws IOException {
+        extractLines(extractor, file, 1, consumer);
+    }
+
+    /**
+     * Extract from each line of a UTF-8 encoded file, using multiple threads.
+     * Lines within a chunk of the file are passed to the consumer in order, but chunks are extracted from
+     * concurrently, so the consumer has to be thread safe if the parallelism is more than 1.
+     *
+     * @param extractor   extractor to apply to each line
+     * @param file        file of newline delimited sources
+     * @param parallelism number of threads to extract with
+     * @param consumer    receives each line, along with the result of extracting from it
+     * @throws IOException if the file can't be read
+     */
+    public void extractLines(final Extractor extractor,
+                             final Path file,
+                             final int parallelism,
+                             final BiConsumer<String, ExtractionResult> consumer) throws IOException {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism has to be positive, was: " + parallelism);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long[] boundaries = chunkBoundaries(channel, parallelism);
+            if (parallelism == 1 || boundaries.length <= 2) {
+                for (int i = 0; i + 1 < boundaries.length; i++) {
+                    extractChunk(extractor, channel, boundaries[i], boundaries[i + 1], consumer);
+                }
+                return;
+            }
+            final List<Callable<Void>> chunks = new ArrayList<>(boundaries.length - 1);
+            for (int i = 0; i + 1 < boundaries.length; i++) {
+                final long from = boundaries[i];
+                final long to = boundaries[i + 1];
+                chunks.add(() -> {
+                    extractChunk(extractor, channel, from, to, consumer);
+                    return null;
+                });
+            }
+            invokeAll(chunks, parallelism);
+        }
+    }
+
+    private void invokeAll(final List<Callable<Void>> chunks, final int parallelism) throws IOException {
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (final Future<Void> future : pool.invokeAll(chunks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while extracting", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /* offsets at which chunks start, followed by the size of the file; every chunk starts at the beginning of a line */
+    private long[] chunkBoundaries(final FileChannel channel, final int parallelism) throws IOException {
+        final long size = channel.size();
+        final long chunkSize = Math.min(MAX_CHUNK_SIZE,
+                                        Math.max(MIN_CHUNK_SIZE, size / ((long) parallelism * CHUNKS_PER_THREAD)));
+        final List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        long next = chunkSize;
+        while (next < size) {
+            final long lineStart = nextLineStart(channel, next);
+            if (lineStart >= size) {
+                break;
+            }
+            boundaries.add(lineStart);
+            next = lineStart + chunkSize;
+        }
+        boundaries.add(size);
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /* offset of the first line that starts at or after the given offset */
+    private long nextLineStart(final FileChannel channel, final long offset) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        /* the line starts right at the offset, if the previous byte ends a line */
+        long position = offset - 1;
+        while (true) {
+            buffer.clear();
+            final int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                final byte b = buffer.get(i);
+                if (b == '\n') {
+                    return position + i + 1;
+                }
+                if (b == '\r') {
+                    /* a \r\n ends a single line, so a chunk never starts between the two */
+                    final int next = i + 1 < read ? buffer.get(i + 1) : byteAt(channel, position + i + 1);
+                    return position + i + (next == '\n' ? 2 : 1);
+                }
+            }
+            position += read;
+        }
+    }
+
+    /* byte at the given offset, or -1 past the end of the file */
+    private int byteAt(final FileChannel channel, final long offset) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(1);
+        return channel.read(buffer, offset) <= 0 ? -1 : buffer.get(0);
+    }
+
+    private void extractChunk(final Extractor extractor,
+                              final FileChannel channel,
+                              final long from,
+                              final long to,
+                              final BiConsumer<String, ExtractionResult> consumer) throws IOException {
+        if (to - from > Integer.MAX_VALUE) {
+            throw new IOException("line too long, at offset: " + from);
+        }
+        final MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        final int limit = chunk.limit();
+        final ByteBuffer lines = chunk.duplicate();
+        byte[] line = new byte[256];
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && chunk.get(lineEnd) != '\n' && chunk.get(lineEnd) != '\r') {
+                lineEnd++;
+            }
+            final int length = lineEnd - lineStart;
+            if (line.length < length) {
+                line = new byte[Math.max(length, line.length << 1)];
+            }
+            /* cast, so that this runs on java 8, where position() isn't overridden in ByteBuffer */
+            ((Buffer) lines).position(lineStart);
+            lines.get(line, 0, length);
+            final String source = new String(line, 0, length, StandardCharsets.UTF_8);
+            consumer.accept(source, extractor.extractFrom(source));
+            lineStart = lineEnd + 1;
+            if (lineEnd + 1 < limit && chunk.get(lineEnd) == '\r' && chunk.get(lineEnd + 1) == '\n') {
+                lineStart++;
+            }
+        }
+    }
+}
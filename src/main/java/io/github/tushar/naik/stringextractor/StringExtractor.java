@@ -23,14 +23,13 @@ import io.github.tushar.naik.stringextractor.variable.RegexMatchVariable;
 import io.github.tushar.naik.stringextractor.variable.StaticAttachVariable;
 import io.github.tushar.naik.stringextractor.variable.Variable;
 import io.github.tushar.naik.stringextractor.variable.VariableVisitor;
-import lombok.Value;
 import lombok.val;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -41,6 +40,9 @@ import java.util.regex.PatternSyntaxException;
  * @since 1.0.0
  */
 public class StringExtractor implements Extractor {
+    private static final int[] NO_SPANS = new int[0];
+    /* returned by matchOrFail for a source that matched */
+    static final int MATCHED = -1;
     private static final Pattern STR_WITH_SPECIAL_CHARACTERS = Pattern.compile("[^a-zA-Z\\d]");
     /**
      * a visitor on the variable types, which returns true if it was of type {@link LastVariable}
@@ -96,7 +98,18 @@ public class StringExtractor implements Extractor {
         }
     };
     private final boolean failOnStringRemainingAfterExtraction;
+    private final boolean anchoredRegexMatching;
     private final List<ParsedComponent> parsedComponents;
+    private final Instruction[] program;
+    /* names of the variables extracted, shared by all results */
+    private final ExtractionSchema schema;
+    private final boolean hasContextMappedVariables;
+    /* set only for blueprints without any regex */
+    private final FixedOffsetMatcher fixedOffsetMatcher;
+    /* set only if code generation was asked for */
+    private final GeneratedMatcher generatedMatcher;
+    private final String leadingLiteral;
+    private final int stepCount;
     private final int numberOfVariables;
     private final String skippedVariable;
     private final String contextMappingVariable;
@@ -133,6 +146,62 @@ public class StringExtractor implements Extractor {
                            final String skippedVariable,
                            final String contextMappingVariable,
                            final String staticAttachVariable) throws BlueprintParseError {
+        this(blueprint, variableStart, variablePrefix, regexSeparator, variableSuffix,
+             failOnStringRemainingAfterExtraction, skippedVariable, contextMappingVariable, staticAttachVariable,
+             false);
+    }
+
+    /**
+     * @param blueprint                            the string that essentially represents the variable extraction rules
+     *                                             "io.${{domain:[a-zA-Z]+}}.${{user:[a-zA-Z]+}}.package"
+     * @param variableStart                        character representing the start of a variable
+     * @param variablePrefix                       character representing the prefix after start
+     * @param regexSeparator                       character that separates the variable from the regex
+     * @param variableSuffix                       character that represents the suffix
+     * @param failOnStringRemainingAfterExtraction set this to true if you want to ignore if there are dangling
+     *                                             characters after the last variable
+     * @param skippedVariable                      regex variables with this name are retained in the extracted string
+     * @param contextMappingVariable               variables with this name are replaced with values from the context
+     * @param staticAttachVariable                 variables with this name attach their value to the extracted string
+     * @param anchoredRegexMatching                set this to true if regex variables must match right at the
+     *                                             current position, instead of the first match found in the remaining
+     *                                             string
+     * @throws BlueprintParseError any error while parsing the blueprint
+     */
+    @SuppressWarnings("java:S107")
+    public StringExtractor(final String blueprint,
+                           final char variableStart,
+                           final char variablePrefix,
+                           final char regexSeparator,
+                           final char variableSuffix,
+                           final boolean failOnStringRemainingAfterExtraction,
+                           final String skippedVariable,
+                           final String contextMappingVariable,
+                           final String staticAttachVariable,
+                           final boolean anchoredRegexMatching) throws BlueprintParseError {
+        this(blueprint, variableStart, variablePrefix, regexSeparator, variableSuffix,
+             failOnStringRemainingAfterExtraction, skippedVariable, contextMappingVariable, staticAttachVariable,
+             anchoredRegexMatching, false, new CompilationContext());
+    }
+
+    /**
+     * @param codegen set this to true to match using a class generated for this blueprint (see
+     *                {@link BlueprintCodegen}), needs ASM on the classpath
+     * @param context patterns and literals are interned in this context, shared by the blueprints compiled together
+     */
+    @SuppressWarnings("java:S107")
+    StringExtractor(final String blueprint,
+                    final char variableStart,
+                    final char variablePrefix,
+                    final char regexSeparator,
+                    final char variableSuffix,
+                    final boolean failOnStringRemainingAfterExtraction,
+                    final String skippedVariable,
+                    final String contextMappingVariable,
+                    final String staticAttachVariable,
+                    final boolean anchoredRegexMatching,
+                    final boolean codegen,
+                    final CompilationContext context) throws BlueprintParseError {
 
         /* a base condition check */
         checkCondition(variableStart == variablePrefix ||
@@ -144,6 +213,7 @@ public class StringExtractor implements Extractor {
                        BlueprintParseErrorCode.INVALID_CHARACTER_SETTINGS);
 
         this.failOnStringRemainingAfterExtraction = failOnStringRemainingAfterExtraction;
+        this.anchoredRegexMatching = anchoredRegexMatching;
         this.parsedComponents = new ArrayList<>();
         this.skippedVariable = skippedVariable;
         this.contextMappingVariable = contextMappingVariable;
@@ -163,7 +233,7 @@ public class StringExtractor implements Extractor {
             if (isVariableStart(variableStart, variablePrefix, chars, index)) {
                 if (collected.length() != 0) {
                     final String collectedString = collected.toString();
-                    parsedComponents.add(new ExactMatchComponent(collectedString));
+                    parsedComponents.add(new ExactMatchComponent(context.literal(collectedString)));
                     Utils.clearStringBuilder(collected);
                 }
                 variableIsBeingExtracted = true;
@@ -172,7 +242,7 @@ public class StringExtractor implements Extractor {
             }
             if (variableIsBeingExtracted && isVariableEnd(variableSuffix, chars, index)) {
                 final String variableNameRegex = variableName.toString();
-                final Variable variable = extractVariable(regexSeparator, variableNameRegex);
+                final Variable variable = extractVariable(regexSeparator, variableNameRegex, context);
                 parsedComponents.add(new VariableComponent(variable));
                 variableIsBeingExtracted = false;
                 Utils.clearStringBuilder(variableName);
@@ -192,71 +262,373 @@ public class StringExtractor implements Extractor {
         /* don't forget the remaining collected string */
         if (collected.length() != 0) {
             final String collectedString = collected.toString();
-            parsedComponents.add(new ExactMatchComponent(collectedString));
+            parsedComponents.add(new ExactMatchComponent(context.literal(collectedString)));
         }
         checkCondition(variableIsBeingExtracted, BlueprintParseErrorCode.VARIABLE_NOT_CLOSED);
         numberOfVariables = (int) parsedComponents.stream().filter(k -> k.accept(IS_VARIABLE)).count();
+        val compiler = new ProgramCompiler(skippedVariable, context);
+        program = compiler.compile(parsedComponents);
+        schema = compiler.schema();
+        hasContextMappedVariables = Arrays.stream(program)
+                .anyMatch(instruction -> instruction.getOpcode() == Instruction.CONTEXT_MAPPED);
+        fixedOffsetMatcher = FixedOffsetMatcher.compile(program, failOnStringRemainingAfterExtraction);
+        /* blueprints matched at fixed offsets are straight-line already */
+        generatedMatcher = codegen && fixedOffsetMatcher == null
+                           ? BlueprintCodegen.generate(program, anchoredRegexMatching,
+                                                       failOnStringRemainingAfterExtraction)
+                           : null;
+        leadingLiteral = leadingLiteralOf(program);
+        stepCount = (int) Arrays.stream(program).filter(instruction -> !instruction.isLiteral()).count();
+    }
+
+    /**
+     * Recreates an extractor from an already compiled program (see {@link CompiledBlueprints}), without parsing the
+     * blueprint again
+     */
+    StringExtractor(final Instruction[] program,
+                    final ExtractionSchema schema,
+                    final int numberOfVariables,
+                    final boolean failOnStringRemainingAfterExtraction,
+                    final boolean anchoredRegexMatching) {
+        this.failOnStringRemainingAfterExtraction = failOnStringRemainingAfterExtraction;
+        this.anchoredRegexMatching = anchoredRegexMatching;
+        this.parsedComponents = new ArrayList<>();
+        this.skippedVariable = "";
+        this.contextMappingVariable = "";
+        this.staticAttachVariable = "";
+        this.numberOfVariables = numberOfVariables;
+        this.program = program;
+        this.schema = schema;
+        this.hasContextMappedVariables = Arrays.stream(program)
+                .anyMatch(instruction -> instruction.getOpcode() == Instruction.CONTEXT_MAPPED);
+        this.fixedOffsetMatcher = FixedOffsetMatcher.compile(program, failOnStringRemainingAfterExtraction);
+        this.generatedMatcher = null;
+        this.leadingLiteral = leadingLiteralOf(program);
+        this.stepCount = (int) Arrays.stream(program).filter(instruction -> !instruction.isLiteral()).count();
     }
 
     /**
      * perform extractions from a source string using the compiled blueprint
      *
      * @param source     source string
-     * @param contextMap a context that acn be passed and used for replacing values during extraction
+     * @param contextMap a context that acn be passed and used for replacements during extraction
      * @return result after extraction
      */
     @Override
     public ExtractionResult extractFrom(final String source, final Map<String, String> contextMap) {
-        final Map<String, Object> extractions = new HashMap<>(numberOfVariables);
+        return extractFrom((CharSequence) source, contextMap);
+    }
 
-        /* drain or string_yet_to_be_parsed represents how much of the string is remaining. We start with the source */
-        String drain = source;
-        StringBuilder extractedString = new StringBuilder();
+    /**
+     * perform extractions from a char sequence in place, using the compiled blueprint
+     *
+     * @param source     source char sequence, that must not be modified during the extraction
+     * @param contextMap a context that acn be passed and used for replacements during extraction
+     * @return result after extraction
+     */
+    @Override
+    public ExtractionResult extractFrom(final CharSequence source, final Map<String, String> contextMap) {
+        if (fixedOffsetMatcher != null) {
+            return fixedOffsetMatcher.match(source)
+                   ? materialize(source, contextMap, fixedOffsetMatcher.spans())
+                   : ExtractionResult.error();
+        }
+        final int[] spans = newSpans();
+        if (!(generatedMatcher != null ? generatedMatcher.match(source, spans) : match(source, spans))) {
+            return ExtractionResult.error();
+        }
+        return materialize(source, contextMap, spans);
+    }
 
-        for (final ParsedComponent parsedComponent : parsedComponents) {
-            /* an effective final variable to pass along the current value into the generator function below */
-            val finalDrain = drain;
+    /**
+     * Runs the program against the source, without materializing anything.
+     * Literals are checked in place at the cursor, while the region matched by every other instruction (a step) is
+     * recorded in spans, as [start, end) pairs in program order.
+     *
+     * @param source source string
+     * @param spans  array of size 2 * {@link #stepCount()}, that gets filled with the regions matched by each step
+     * @return true if the source matched the blueprint
+     */
+    boolean match(final CharSequence source, final int[] spans) {
+        return matchOrFail(source, spans) == MATCHED;
+    }
 
-            Optional<ExtractedResult> extractedResult =
-                    parsedComponent.accept(generateDrainFromComponent(extractions, finalDrain, contextMap));
-            if (!extractedResult.isPresent()) {
-                return ExtractionResult.error();
+    /**
+     * Same as {@link #match(CharSequence, int[])}, but tells which instruction failed, for {@link ExtractionMetrics}.
+     *
+     * @param source source string
+     * @param spans  array of size 2 * {@link #stepCount()}, that gets filled with the regions matched by each step
+     * @return {@link #MATCHED}, else the index of the instruction that failed, or the length of the program if
+     * characters remained after the last instruction
+     */
+    int matchOrFail(final CharSequence source, final int[] spans) {
+        /* cursor represents how much of the source has been consumed */
+        int cursor = 0;
+        int step = 0;
+        for (int i = 0; i < program.length; i++) {
+            final Instruction instruction = program[i];
+            if (instruction.isLiteral()) {
+                val characters = instruction.getOperand();
+                if (!Utils.regionMatches(source, cursor, characters)) {
+                    return i;
+                }
+                cursor += characters.length();
+            } else {
+                cursor = matchStep(instruction, source, cursor, anchoredRegexMatching, spans, step++);
+                if (cursor < 0) {
+                    return i;
+                }
             }
-            drain = extractedResult.get().getDrain();
-            extractedString.append(extractedResult.get().getExtraction());
         }
+        return !failOnStringRemainingAfterExtraction || cursor == source.length() ? MATCHED : program.length;
+    }
 
-        if (failOnStringRemainingAfterExtraction && !Utils.isNullOrEmpty(drain)) {
-            return ExtractionResult.error();
+    /**
+     * @return an array to record the spans of a single extraction in
+     */
+    int[] newSpans() {
+        return stepCount == 0 ? NO_SPANS : new int[2 * stepCount];
+    }
+
+    /**
+     * Builds the extraction result for a source that has been successfully matched.
+     * Nothing is copied out of the source, unless it is an extracted value or part of the extracted string.
+     * Extractions are stored in an array, indexed by the slot of each variable in the {@link ExtractionSchema}.
+     * <p>
+     * The extracted string is only built when it is first asked for, unless the source is mutable (not a String) or
+     * the blueprint has context mapped variables (the context map may change after the call).
+     *
+     * @param source     source string
+     * @param contextMap context used for replacements
+     * @param spans      regions matched by each step, as recorded by {@link #match(CharSequence, int[])} (only the
+     *                   start is read for a last variable, it always ends with the source)
+     * @return result after extraction
+     */
+    ExtractionResult materialize(final CharSequence source,
+                                 final Map<String, String> contextMap,
+                                 final int[] spans) {
+        final Object[] extractions = new Object[schema.size()];
+        int span = 0;
+        for (final Instruction instruction : program) {
+            switch (instruction.getOpcode()) {
+                case Instruction.REGEX_MATCH:
+                    if (!instruction.isRetained()) {
+                        extractions[instruction.getSlot()] = Utils.substring(source, spans[span], spans[span + 1]);
+                    }
+                    break;
+                case Instruction.EXACT_MATCH_VARIABLE:
+                    extractions[instruction.getSlot()] = instruction.getOperand();
+                    break;
+                case Instruction.LAST:
+                    extractions[instruction.getSlot()] = Utils.substring(source, spans[span], source.length());
+                    break;
+                default:
+                    break;
+            }
+            if (!instruction.isLiteral()) {
+                span += 2;
+            }
         }
 
+        if (source instanceof String && !hasContextMappedVariables) {
+            return ExtractionResult.lazy(new SlotMap(schema, extractions),
+                                         () -> extractedString(source, Collections.emptyMap(), spans));
+        }
         return ExtractionResult.builder()
-                .extractedString(extractedString + drain)
-                .extractions(extractions)
+                .extractedString(extractedString(source, contextMap, spans))
+                .extractions(new SlotMap(schema, extractions))
                 .build();
     }
 
+    /**
+     * @return the source, without the regions that were extracted, and with context mapped and static attach
+     * variables added
+     */
+    private String extractedString(final CharSequence source, final Map<String, String> contextMap, final int[] spans) {
+        final StringBuilder extractedString = new StringBuilder(source.length());
+        int cursor = 0;
+        int span = 0;
+        for (final Instruction instruction : program) {
+            switch (instruction.getOpcode()) {
+                case Instruction.EXACT_MATCH: {
+                    extractedString.append(instruction.getOperand());
+                    cursor += instruction.getOperand().length();
+                    break;
+                }
+                case Instruction.REGEX_MATCH: {
+                    final int start = spans[span++];
+                    final int end = spans[span++];
+                    if (instruction.isRetained()) {
+                        extractedString.append(source, start, end);
+                    }
+                    cursor += end - start;
+                    break;
+                }
+                case Instruction.DISCARDED_REGEX_MATCH: {
+                    final int start = spans[span++];
+                    final int end = spans[span++];
+                    cursor += end - start;
+                    break;
+                }
+                case Instruction.EXACT_MATCH_VARIABLE: {
+                    val matchString = instruction.getOperand();
+                    if (instruction.isRetained()) {
+                        extractedString.append(matchString);
+                    }
+                    cursor += matchString.length();
+                    break;
+                }
+                case Instruction.DISCARDED_EXACT_MATCH: {
+                    cursor += instruction.getOperand().length();
+                    break;
+                }
+                case Instruction.LAST: {
+                    span += 2;
+                    if (instruction.isRetained()) {
+                        extractedString.append(source, cursor, source.length());
+                    }
+                    cursor = source.length();
+                    break;
+                }
+                case Instruction.CONTEXT_MAPPED: {
+                    span += 2;
+                    if (contextMap != null && contextMap.containsKey(instruction.getOperand())) {
+                        extractedString.append(contextMap.get(instruction.getOperand()));
+                    }
+                    break;
+                }
+                case Instruction.STATIC_ATTACH: {
+                    span += 2;
+                    extractedString.append(instruction.getOperand());
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("Unknown opcode: " + instruction.getOpcode());
+            }
+        }
+        return extractedString.append(source, cursor, source.length()).toString();
+    }
+
+    /**
+     * Matches a single step (any instruction that isn't a literal) at the cursor.
+     * In anchored mode, a regex has to match right at the cursor, so a failing match is detected without scanning
+     * the rest of the source.
+     *
+     * @return the cursor after the step, or -1 if the step didn't match
+     */
+    static int matchStep(final Instruction instruction,
+                         final CharSequence source,
+                         final int cursor,
+                         final boolean anchoredRegexMatching,
+                         final int[] spans,
+                         final int step) {
+        switch (instruction.getOpcode()) {
+            case Instruction.REGEX_MATCH:
+            case Instruction.DISCARDED_REGEX_MATCH: {
+                val charClass = instruction.getMatcher().getCharClass();
+                if (charClass != null) {
+                    if (!charClass.match(source, cursor, anchoredRegexMatching, spans, 2 * step)) {
+                        return -1;
+                    }
+                    return cursor + spans[2 * step + 1] - spans[2 * step];
+                }
+                return instruction.getMatcher().match(source, cursor, anchoredRegexMatching, spans, 2 * step);
+            }
+            case Instruction.LAST: {
+                if (cursor >= source.length()) {
+                    return -1;
+                }
+                spans[2 * step] = cursor;
+                spans[2 * step + 1] = source.length();
+                return source.length();
+            }
+            default:
+                /* context mapped and static attach variables don't consume anything */
+                spans[2 * step] = cursor;
+                spans[2 * step + 1] = cursor;
+                return cursor;
+        }
+    }
+
     public long numberOfVariables() {
         return numberOfVariables;
     }
 
-    private boolean isVariableEnd(final char variableSuffix, final char[] chars, final int index) {
+    /**
+     * @return the literal that every source has to start with, for an extraction to be successful (may be empty)
+     */
+    String leadingLiteral() {
+        return leadingLiteral;
+    }
+
+    /**
+     * @return number of instructions in the program that aren't literals
+     */
+    int stepCount() {
+        return stepCount;
+    }
+
+    Instruction[] program() {
+        return program;
+    }
+
+    /**
+     * @return matcher generated for this blueprint, null if it is interpreted
+     */
+    GeneratedMatcher generatedMatcher() {
+        return generatedMatcher;
+    }
+
+    ExtractionSchema schema() {
+        return schema;
+    }
+
+    boolean isFailOnStringRemainingAfterExtraction() {
+        return failOnStringRemainingAfterExtraction;
+    }
+
+    boolean isAnchoredRegexMatching() {
+        return anchoredRegexMatching;
+    }
+
+    private static String leadingLiteralOf(final Instruction[] program) {
+        val literal = new StringBuilder();
+        for (final Instruction instruction : program) {
+            switch (instruction.getOpcode()) {
+                case Instruction.EXACT_MATCH:
+                case Instruction.EXACT_MATCH_VARIABLE:
+                case Instruction.DISCARDED_EXACT_MATCH:
+                    literal.append(instruction.getOperand());
+                    break;
+                case Instruction.CONTEXT_MAPPED:
+                case Instruction.STATIC_ATTACH:
+                    /* these don't consume anything from the source */
+                    break;
+                default:
+                    return literal.toString();
+            }
+        }
+        return literal.toString();
+    }
+
+    static boolean isVariableEnd(final char variableSuffix, final char[] chars, final int index) {
         return index + 1 < chars.length && chars[index] == variableSuffix
                 && chars[index + 1] == variableSuffix
                 && ((index + 2) == chars.length || chars[index + 2] != variableSuffix); // this last condition is to
         // handle things like: ${{some:[A-Z]{3}}} -> here it ends with }}}
     }
 
-    private boolean isVariableStart(final char variableStart, final char variablePrefix, final char[] chars,
-                                    final int index) {
+    static boolean isVariableStart(final char variableStart, final char variablePrefix, final char[] chars,
+                                   final int index) {
         return (index + 2) < chars.length
                 && chars[index] == variableStart
                 && chars[index + 1] == variablePrefix
                 && chars[index + 2] == variablePrefix;
     }
 
-    private Variable extractVariable(final char regexSeparator, final String variableNameRegex)
-            throws BlueprintParseError {
+    private Variable extractVariable(final char regexSeparator,
+                                     final String variableNameRegex,
+                                     final CompilationContext context) throws BlueprintParseError {
 
         /* validations */
         checkCondition(Utils.isNullOrEmpty(variableNameRegex), BlueprintParseErrorCode.EMPTY_VARIABLE_REGEX);
@@ -265,14 +637,14 @@ public class StringExtractor implements Extractor {
         checkCondition(variableRegexSplits.length == 0, BlueprintParseErrorCode.EMPTY_VARIABLE_REGEX);
 
 
-        final String lhs = variableRegexSplits[0];
+        final String lhs = context.literal(variableRegexSplits[0]);
 
         /* if only lhs exists, it has to be the last variable */
         if (variableRegexSplits.length == 1) {
             return new LastVariable(lhs);
         }
 
-        final String rhs = variableRegexSplits[1];
+        final String rhs = context.literal(variableRegexSplits[1]);
 
         /* if lhs is empty but rhs is provided, it is meant for some form of discarded variable (remove the matched
         value from source string) */
@@ -282,7 +654,7 @@ public class StringExtractor implements Extractor {
                 return new DiscardedExactMatchVariable(rhs);
             }
             try {
-                val compile = Pattern.compile(rhs);
+                val compile = context.pattern(rhs);
                 return new DiscardedRegexMatchVariable(compile);
             } catch (PatternSyntaxException e) {
                 return new DiscardedExactMatchVariable(rhs);
@@ -302,141 +674,17 @@ public class StringExtractor implements Extractor {
             if (!STR_WITH_SPECIAL_CHARACTERS.matcher(rhs).find()) {
                 return new ExactMatchVariable(lhs, rhs);
             }
-            val compile = Pattern.compile(rhs);
+            val compile = context.pattern(rhs);
             return new RegexMatchVariable(lhs, compile);
         } catch (PatternSyntaxException exception) {
             return new ExactMatchVariable(lhs, rhs);
         }
     }
 
-    private ParsedComponentVisitor<Optional<ExtractedResult>> generateDrainFromComponent(
-            final Map<String, Object> extractions,
-            final String drain,
-            final Map<String, String> contextMap) {
-        return new ParsedComponentVisitor<Optional<ExtractedResult>>() {
-            @Override
-            public Optional<ExtractedResult> visit(final ExactMatchComponent exactMatchComponent) {
-                if (drain.startsWith(exactMatchComponent.getCharacters())) {
-                    val remainingString = drain.substring(exactMatchComponent.getCharacters().length());
-                    return ExtractedResult.of(exactMatchComponent.getCharacters(), remainingString);
-                }
-                return Optional.empty();
-            }
-
-            @Override
-            public Optional<ExtractedResult> visit(final VariableComponent variableComponent) {
-                val variable = variableComponent.getVariable();
-                return variable.accept(generateDrainByExtractingVariable());
-            }
-
-            private VariableVisitor<Optional<ExtractedResult>> generateDrainByExtractingVariable() {
-                return new VariableVisitor<Optional<ExtractedResult>>() {
-                    @Override
-                    public Optional<ExtractedResult> visit(final RegexMatchVariable regexMatchVariable) {
-                        val pattern = regexMatchVariable.getPattern();
-                        val matcher = pattern.matcher(drain);
-                        if (matcher.find()) {
-                            val firstMatch = matcher.group(0);
-                            String extraction = "";
-                            if (skippedVariable.equals(regexMatchVariable.getVariableName())) {
-                                extraction = firstMatch;
-                            } else {
-                                extractions.put(regexMatchVariable.getVariableName(), firstMatch);
-                            }
-                            val remainingString = drain.substring(firstMatch.length());
-                            return ExtractedResult.of(extraction, remainingString);
-                        }
-                        return Optional.empty();
-                    }
-
-                    @Override
-                    public Optional<ExtractedResult> visit(final ExactMatchVariable exactMatchVariable) {
-                        if (drain.startsWith(exactMatchVariable.getMatchString())) {
-                            String extraction = "";
-                            if (skippedVariable.equals(exactMatchVariable.getVariableName())) {
-                                extraction = exactMatchVariable.getMatchString();
-                            } else {
-                                extractions.put(exactMatchVariable.getVariableName(),
-                                                exactMatchVariable.getMatchString());
-                            }
-                            extractions.put(exactMatchVariable.getVariableName(), exactMatchVariable.getMatchString());
-                            val remainingString = drain.substring(exactMatchVariable.getMatchString().length());
-                            return ExtractedResult.of(extraction, remainingString);
-                        }
-                        return Optional.empty();
-                    }
-
-                    @Override
-                    public Optional<ExtractedResult> visit(
-                            final DiscardedRegexMatchVariable discardedRegexMatchVariable) {
-                        val pattern = discardedRegexMatchVariable.getPattern();
-                        val matcher = pattern.matcher(drain);
-                        if (matcher.find()) {
-                            val firstMatch = matcher.group(0);
-                            val remainingString = drain.substring(firstMatch.length());
-                            return ExtractedResult.of("", remainingString);
-                        }
-                        return Optional.empty();
-                    }
-
-                    @Override
-                    public Optional<ExtractedResult> visit(final LastVariable lastVariable) {
-                        if (!Utils.isNullOrEmpty(drain)) {
-                            String extraction = "";
-                            if (skippedVariable.equals(lastVariable.getVariableName())) {
-                                extraction = drain;
-                            } else {
-                                extractions.put(lastVariable.getVariableName(), drain);
-                            }
-                            extractions.put(lastVariable.getVariableName(), drain);
-                            return ExtractedResult.of(extraction, "");
-                        }
-                        return Optional.empty();
-                    }
-
-                    @Override
-                    public Optional<ExtractedResult> visit(
-                            final DiscardedExactMatchVariable discardedExactMatchVariable) {
-                        if (drain.startsWith(discardedExactMatchVariable.getMatchString())) {
-                            val remainingString = drain.substring(
-                                    discardedExactMatchVariable.getMatchString().length());
-                            return ExtractedResult.of("", remainingString);
-                        }
-                        return Optional.empty();
-                    }
-
-                    @Override
-                    public Optional<ExtractedResult> visit(final ContextMappedVariable contextMappedVariable) {
-                        if (contextMap != null &&
-                                contextMap.containsKey(contextMappedVariable.getMappingString())) {
-                            return ExtractedResult.of(contextMap.get(contextMappedVariable.getMappingString()), drain);
-                        }
-                        return ExtractedResult.of("", drain);
-                    }
-
-                    @Override
-                    public Optional<ExtractedResult> visit(final StaticAttachVariable staticAttachVariable) {
-                        return ExtractedResult.of(staticAttachVariable.getStaticAttachString(), drain);
-                    }
-                };
-            }
-        };
-    }
-
     private void checkCondition(final boolean condition, final BlueprintParseErrorCode invalidCharacterSettings)
             throws BlueprintParseError {
         if (condition) {
             throw new BlueprintParseError(invalidCharacterSettings);
         }
     }
-
-    @Value
-    private static class ExtractedResult {
-        String extraction;
-        String drain;
-
-        public static Optional<ExtractedResult> of(String extraction, String drain) {
-            return Optional.of(new ExtractedResult(extraction, drain));
-        }
-    }
 }
\ No newline at end of file
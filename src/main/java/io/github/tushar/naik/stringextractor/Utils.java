@@ -26,4 +26,33 @@ class Utils {
         collected.delete(0, collected.length());
     }
 
+    /**
+     * @return true if the literal occurs in the source at the offset (same as {@link String#startsWith(String, int)})
+     */
+    public boolean regionMatches(final CharSequence source, final int offset, final String literal) {
+        if (source instanceof String) {
+            return ((String) source).startsWith(literal, offset);
+        }
+        final int length = literal.length();
+        if (offset < 0 || offset > source.length() - length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (source.charAt(offset + i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a String copy of the region [start, end) of the source
+     */
+    public String substring(final CharSequence source, final int start, final int end) {
+        if (source instanceof String) {
+            return ((String) source).substring(start, end);
+        }
+        return source.subSequence(start, end).toString();
+    }
+
 }
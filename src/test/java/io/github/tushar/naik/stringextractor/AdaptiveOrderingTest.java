@@ -0,0 +1,136 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveOrderingTest {
+
+    private static AdaptiveOrdering ordering(final boolean failOnStringRemaining,
+                                             final String... blueprints) throws BlueprintParseError {
+        final List<StringExtractor> stringExtractors = new ArrayList<>();
+        for (final String blueprint : blueprints) {
+            stringExtractors.add(new StringExtractor(blueprint, failOnStringRemaining));
+        }
+        return new AdaptiveOrdering(stringExtractors, Long.MAX_VALUE);
+    }
+
+    @Test
+    void testDisjointness() throws BlueprintParseError {
+        final AdaptiveOrdering ordering = ordering(false,
+                                                   "org.${{:[a-z]+}}.kafka",
+                                                   "org.${{:[a-z]+}}.redis",
+                                                   "org.${{:[a-z]+}}.${{rest}}",
+                                                   "org.${{:[0-9]+}}.redis",
+                                                   "com.${{rest}}",
+                                                   "${{:[a-z]+}}.redis",
+                                                   "org.");
+        /* same steps, then different characters */
+        assertTrue(ordering.disjoint(0, 1));
+        assertTrue(ordering.disjoint(0, 4));
+        /* a regex may match what the other expects */
+        assertFalse(ordering.disjoint(0, 2));
+        assertFalse(ordering.disjoint(1, 3));
+        assertFalse(ordering.disjoint(4, 5));
+        /* a prefix matches everything the longer blueprint matches */
+        assertFalse(ordering.disjoint(0, 6));
+        assertFalse(ordering.disjoint(6, 2));
+    }
+
+    @Test
+    void testDisjointnessWhenFailingOnStringRemaining() throws BlueprintParseError {
+        final AdaptiveOrdering ordering = ordering(true,
+                                                   "org.${{:[a-z]+}}",
+                                                   "org.${{:[a-z]+}}.kafka",
+                                                   "org.${{:[a-z]+}}${{rest}}",
+                                                   "org.${{:[a-z]+}}${{:[0-9]*}}");
+        assertTrue(ordering.disjoint(0, 1));
+        assertTrue(ordering.disjoint(2, 0));
+        /* a regex may match an empty string */
+        assertFalse(ordering.disjoint(0, 3));
+    }
+
+    @Test
+    void testHotBlueprintsAreOnlyMovedPastDisjointOnes() throws BlueprintParseError {
+        final AdaptiveOrdering ordering = ordering(false,
+                                                   "org.apache.${{name}}",
+                                                   "com.${{rest}}",
+                                                   "${{:[a-z]+}}.${{rest}}",
+                                                   "net.${{rest}}",
+                                                   "io.${{rest}}");
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, ordering.current().getOrder());
+        for (int i = 0; i < 100; i++) {
+            ordering.hit(4);
+            ordering.hit(1);
+        }
+        for (int i = 0; i < 10; i++) {
+            ordering.hit(3);
+        }
+        ordering.reorder();
+        /* io and net can't be moved ahead of the blueprint with a leading regex */
+        assertArrayEquals(new int[]{1, 0, 2, 4, 3}, ordering.current().getOrder());
+
+        /* once io stops matching, it cools down below net */
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 100; j++) {
+                ordering.hit(3);
+            }
+            ordering.reorder();
+        }
+        assertArrayEquals(new int[]{1, 0, 2, 3, 4}, ordering.current().getOrder());
+    }
+
+    @Test
+    void testHitsAreCarriedOverForReusedBlueprints() throws BlueprintParseError {
+        final StringExtractor apache = new StringExtractor("org.apache.${{name}}");
+        final StringExtractor net = new StringExtractor("net.${{rest}}");
+        final StringExtractor io = new StringExtractor("io.${{rest}}");
+        final AdaptiveOrdering previous = new AdaptiveOrdering(ImmutableList.of(apache, net, io), Long.MAX_VALUE);
+        for (int i = 0; i < 100; i++) {
+            previous.hit(2);
+        }
+        previous.hit(1);
+
+        /* net was dropped and edu added, io is still hot */
+        final AdaptiveOrdering next = new AdaptiveOrdering(
+                ImmutableList.of(apache, new StringExtractor("edu.${{rest}}"), io), Long.MAX_VALUE);
+        next.carryOver(previous);
+        assertArrayEquals(new int[]{2, 0, 1}, next.current().getOrder());
+    }
+
+    @Test
+    void testFirstDeclaredBlueprintStillWins() throws BlueprintParseError {
+        final List<String> blueprints = ImmutableList.of("org.${{:[a-z]+}}.${{name}}",
+                                                         "org.apache.${{:[a-z]+}}.${{rest}}",
+                                                         "com.${{rest}}",
+                                                         "${{:[a-z]+}}.${{:[a-z]+}}.${{tail}}",
+                                                         "org.apache.${{name}}");
+        final Extractor adaptive = ExtractorBuilder.newBuilder()
+                .blueprints(blueprints)
+                .adaptiveOrdering(true)
+                .build();
+        final Extractor declared = ExtractorBuilder.newBuilder()
+                .blueprints(blueprints)
+                .build();
+        final List<String> sources = ImmutableList.of("org.apache.kafka.consumer",
+                                                      "org.apache.Kafka",
+                                                      "com.apache",
+                                                      "net.apache.kafka",
+                                                      "io.kafka");
+        for (int i = 0; i < 50_000; i++) {
+            final String source = sources.get(i % 7 == 0 ? i % sources.size() : 2);
+            final ExtractionResult expected = declared.extractFrom(source);
+            final ExtractionResult actual = adaptive.extractFrom(source);
+            assertEquals(expected.isError(), actual.isError(), source);
+            assertEquals(expected.getExtractions(), actual.getExtractions(), source);
+            assertEquals(expected.getExtractedString(), actual.getExtractedString(), source);
+        }
+    }
+}
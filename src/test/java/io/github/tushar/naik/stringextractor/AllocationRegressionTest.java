@@ -0,0 +1,187 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fails the build if the bytes allocated per extraction grow past the baseline in allocation-baseline.properties.
+ * Baselines are kept per Java version (allocations differ across JDKs), and scenarios are skipped on a Java version
+ * without one, unless -DrequireAllocationBaseline=true is set (as it is in CI, on the Java version the baseline is
+ * recorded on), in which case a missing baseline fails the test. After an intended change in allocations, or to add a
+ * Java version, the baseline can be rewritten with:
+ * mvn test -Dtest=AllocationRegressionTest -DupdateAllocationBaseline=true
+ */
+class AllocationRegressionTest {
+    private static final String BASELINE = "allocation-baseline.properties";
+    private static final boolean REQUIRE_BASELINE = Boolean.getBoolean("requireAllocationBaseline");
+    private static final int WARMUP_OPERATIONS = 50_000;
+    private static final int MEASURED_OPERATIONS = 20_000;
+    /* the least allocating round is kept, so that a JIT compilation landing in one round doesn't count */
+    private static final int MEASURED_ROUNDS = 5;
+    /* allocations vary a little with what the JIT manages to eliminate */
+    private static final double TOLERANCE = 1.1;
+    private static final long SLACK_BYTES = 8;
+
+    private static final Properties measured = new Properties();
+
+    static Stream<Arguments> scenarios() throws BlueprintParseError {
+        final List<String> bulkBlueprints = IntStream.range(0, 100)
+                .mapToObj(i -> "service" + i + ".${{host:[a-z]+}}.cpu.${{core:[0-9]+}}")
+                .collect(Collectors.toList());
+        return Stream.of(
+                Arguments.of("regex",
+                             new StringExtractor("org.apache.${{component:(kafka|zookeeper)}}.${{metric:[a-z]+}}"),
+                             "org.apache.kafka.bytes", Collections.emptyMap()),
+                Arguments.of("charClass",
+                             new StringExtractor("${{host:[^.]+}}.cpu.${{core:[0-9]+}}"),
+                             "web12.cpu.3", Collections.emptyMap()),
+                Arguments.of("fixedOffset",
+                             new StringExtractor("org.${{company:apache}}.kafka.${{rest}}"),
+                             "org.apache.kafka.bytes", Collections.emptyMap()),
+                Arguments.of("skipped",
+                             ExtractorBuilder.newBuilder()
+                                     .blueprint("org.${{skip:[a-z]+}}.${{metric:[a-z]+}}")
+                                     .withSkippedVariable("skip")
+                                     .build(),
+                             "org.apache.bytes", Collections.emptyMap()),
+                Arguments.of("contextMapped",
+                             ExtractorBuilder.newBuilder()
+                                     .blueprint("org.${{ctx:region}}.${{metric:[a-z]+}}")
+                                     .withContextMappedVariable("ctx")
+                                     .build(),
+                             "org..bytes", ImmutableMap.of("region", "asia")),
+                Arguments.of("bulkHit",
+                             ExtractorBuilder.newBuilder().blueprints(bulkBlueprints).build(),
+                             "service50.web.cpu.12", Collections.emptyMap()),
+                Arguments.of("bulkMiss",
+                             ExtractorBuilder.newBuilder().blueprints(bulkBlueprints).build(),
+                             /* passes the leading literal dispatch, and fails in the last step of the blueprint */
+                             "service50.web.cpu.x", Collections.emptyMap()));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("scenarios")
+    void testAllocationPerExtraction(final String scenario,
+                                     final Extractor extractor,
+                                     final String source,
+                                     final Map<String, String> contextMap) throws IOException {
+        final com.sun.management.ThreadMXBean threadMXBean = threadMXBean();
+        assumeOrFail(threadMXBean != null, "Thread allocation counters aren't supported on this JVM");
+
+        long sink = run(extractor, source, contextMap, WARMUP_OPERATIONS);
+        final long threadId = Thread.currentThread().getId();
+        long bytesPerOperation = Long.MAX_VALUE;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            final long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            sink += run(extractor, source, contextMap, MEASURED_OPERATIONS);
+            final long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+            bytesPerOperation = Math.min(bytesPerOperation, allocated / MEASURED_OPERATIONS);
+        }
+        assertTrue(sink >= 0);
+
+        final String key = "java" + System.getProperty("java.specification.version") + "." + scenario;
+        if (Boolean.getBoolean("updateAllocationBaseline")) {
+            updateBaseline(key, bytesPerOperation);
+            return;
+        }
+        final String baseline = loadBaseline().getProperty(key);
+        assumeOrFail(baseline != null, "No allocation baseline for: " + key);
+        final long limit = (long) (Long.parseLong(baseline) * TOLERANCE) + SLACK_BYTES;
+        assertTrue(bytesPerOperation <= limit,
+                   String.format("%s allocates %d bytes per extraction, baseline is %s bytes (limit %d)",
+                                 scenario, bytesPerOperation, baseline, limit));
+    }
+
+    private static void assumeOrFail(final boolean condition, final String message) {
+        if (REQUIRE_BASELINE) {
+            assertTrue(condition, message);
+        } else {
+            Assumptions.assumeTrue(condition, message);
+        }
+    }
+
+    /* returns something derived from every result, so that extractions can't be eliminated */
+    private static long run(final Extractor extractor,
+                            final String source,
+                            final Map<String, String> contextMap,
+                            final int operations) {
+        long sink = 0;
+        for (int i = 0; i < operations; i++) {
+            final ExtractionResult extractionResult = extractor.extractFrom(source, contextMap);
+            sink += extractionResult.isError() ? 1 : extractionResult.getExtractions().size();
+        }
+        return sink;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        try {
+            final java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+                return null;
+            }
+            final com.sun.management.ThreadMXBean allocationCounting
+                    = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (!allocationCounting.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            allocationCounting.setThreadAllocatedMemoryEnabled(true);
+            return allocationCounting;
+        } catch (UnsupportedOperationException | NoClassDefFoundError e) {
+            return null;
+        }
+    }
+
+    private static Properties loadBaseline() throws IOException {
+        final Properties baseline = new Properties();
+        try (InputStream inputStream = AllocationRegressionTest.class.getClassLoader()
+                .getResourceAsStream(BASELINE)) {
+            assertNotNull(inputStream, "Missing " + BASELINE);
+            baseline.load(inputStream);
+        }
+        return baseline;
+    }
+
+    private static synchronized void updateBaseline(final String key,
+                                                    final long bytesPerOperation) throws IOException {
+        measured.setProperty(key, String.valueOf(bytesPerOperation));
+        final Properties baseline = new Properties();
+        final Path path = Paths.get("src", "test", "resources", BASELINE);
+        if (Files.exists(path)) {
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                baseline.load(inputStream);
+            }
+        }
+        baseline.putAll(measured);
+        final List<String> lines = new ArrayList<>();
+        lines.add("# bytes allocated per extraction, per Java version and scenario of AllocationRegressionTest");
+        baseline.stringPropertyNames().stream()
+                .sorted()
+                .forEach(name -> lines.add(name + "=" + baseline.getProperty(name)));
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            outputStream.write((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchExtractionTest {
+
+    private static List<String> sources(final int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> i % 3 == 0 ? "com.miss." + i : "org.apache.kafka.node" + i + ".bytes")
+                .collect(Collectors.toList());
+    }
+
+    private static void assertSameAsSequential(final Extractor extractor,
+                                               final List<String> sources,
+                                               final List<ExtractionResult> results) {
+        assertEquals(sources.size(), results.size());
+        for (int i = 0; i < sources.size(); i++) {
+            final ExtractionResult expected = extractor.extractFrom(sources.get(i));
+            assertEquals(expected.isError(), results.get(i).isError());
+            assertEquals(expected.getExtractions(), results.get(i).getExtractions());
+            assertEquals(expected.getExtractedString(), results.get(i).getExtractedString());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 255, 256, 257, 10_000, 100_000})
+    void testResultsAreInInputOrder(final int size) throws BlueprintParseError {
+        final Extractor extractor = ExtractorBuilder.newBuilder()
+                .blueprints(ImmutableList.of("org.apache.${{component:[a-z]+}}.${{node:node[0-9]+}}.${{rest}}",
+                                             "net.${{rest}}"))
+                .build();
+        final List<String> sources = sources(size);
+
+        assertSameAsSequential(extractor, sources, extractor.extractAll(sources));
+        assertSameAsSequential(extractor, sources, extractor.extractAll(sources, 3));
+        assertSameAsSequential(extractor, sources, extractor.extractAll(sources, 1));
+        assertSameAsSequential(extractor, sources, extractor.extractAll(sources.stream()));
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertSameAsSequential(extractor, sources, extractor.extractAll(sources, pool));
+            assertSameAsSequential(extractor, sources, extractor.extractAll(sources.stream(), pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1})
+    void testInvalidParallelism(final int parallelism) throws BlueprintParseError {
+        final Extractor extractor = new StringExtractor("${{rest}}");
+        final List<String> sources = sources(10);
+        assertThrows(IllegalArgumentException.class, () -> extractor.extractAll(sources, parallelism));
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BlueprintAutomatonTest {
+    private static final String[] LEADING_SEGMENTS = {"org.", "apache.", "kafka.", "a", "b", "${{id:[^.]+}}"};
+    private static final String[] SEGMENTS = {"org.", "apache.", "kafka.", "${{name:[a-z]+}}", "${{:[0-9]+}}",
+            "${{id:[^.]+}}", ".", "-", "${{attach:-}}", "${{context:host}}", "${{skipped:[a-z]+}}", "a", "b"};
+    private static final String[] SOURCE_SEGMENTS = {"org.", "apache.", "kafka.", "abc", "42", ".", "-", "a", "b",
+            "x1"};
+
+    @Test
+    void testCombinedAutomatonMatchesSequentialExtraction() throws BlueprintParseError {
+        final Random random = new Random(42);
+        final List<String> blueprints = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            final StringBuilder blueprint = new StringBuilder(
+                    LEADING_SEGMENTS[random.nextInt(LEADING_SEGMENTS.length)]);
+            final int length = 1 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                blueprint.append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+            }
+            if (random.nextInt(4) == 0) {
+                blueprint.append("${{last}}");
+            }
+            blueprints.add(blueprint.toString());
+        }
+        final Map<String, String> context = ImmutableMap.of("host", "node3");
+        for (final boolean failOnStringRemaining : new boolean[]{false, true}) {
+            for (final boolean anchored : new boolean[]{false, true}) {
+                final Extractor sequential = builder(blueprints, failOnStringRemaining, anchored).build();
+                final Extractor automaton = builder(blueprints, failOnStringRemaining, anchored)
+                        .combinedAutomaton(true)
+                        .build();
+                for (int i = 0; i < 2000; i++) {
+                    final StringBuilder source = new StringBuilder();
+                    final int length = 1 + random.nextInt(8);
+                    for (int j = 0; j < length; j++) {
+                        source.append(SOURCE_SEGMENTS[random.nextInt(SOURCE_SEGMENTS.length)]);
+                    }
+                    assertEquals(sequential.extractFrom(source.toString(), context),
+                                 automaton.extractFrom(source.toString(), context),
+                                 "source: " + source);
+                }
+            }
+        }
+    }
+
+    private static ExtractorBuilder builder(final List<String> blueprints,
+                                            final boolean failOnStringRemaining,
+                                            final boolean anchored) {
+        return ExtractorBuilder.newBuilder()
+                .blueprints(blueprints)
+                .withSkippedVariable("skipped")
+                .withContextMappedVariable("context")
+                .withStaticAttachVariable("attach")
+                .failOnStringRemainingAfterExtraction(failOnStringRemaining)
+                .anchoredRegexMatching(anchored);
+    }
+}
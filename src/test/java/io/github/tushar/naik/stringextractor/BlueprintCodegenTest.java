@@ -0,0 +1,153 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlueprintCodegenTest {
+    private static final String[] SEGMENTS = {"org.", "apache.", "kafka.", "${{name:[a-z]+}}", "${{:[0-9]+}}",
+            "${{id:[^.]+}}", "${{version:v[0-9]+\\.[0-9]}}", ".", "-", "${{attach:-}}", "${{context:host}}",
+            "${{skipped:[a-z]+}}", "${{exact:kafka}}", "${{:apache}}", "a", "b"};
+    private static final String[] SOURCE_SEGMENTS = {"org.", "apache.", "kafka.", "abc", "42", ".", "-", "a", "b",
+            "x1", "v1.2"};
+
+    @Test
+    void testGeneratedMatcherMatchesInterpreter() throws BlueprintParseError {
+        final Random random = new Random(42);
+        final Map<String, String> context = ImmutableMap.of("host", "node3");
+        for (final boolean failOnStringRemaining : new boolean[]{false, true}) {
+            for (final boolean anchored : new boolean[]{false, true}) {
+                for (int i = 0; i < 200; i++) {
+                    final StringBuilder blueprint = new StringBuilder();
+                    final int length = 1 + random.nextInt(6);
+                    for (int j = 0; j < length; j++) {
+                        blueprint.append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+                    }
+                    if (random.nextInt(4) == 0) {
+                        blueprint.append("${{last}}");
+                    }
+                    final Extractor interpreted = builder(blueprint.toString(), failOnStringRemaining, anchored)
+                            .build();
+                    final Extractor generated = builder(blueprint.toString(), failOnStringRemaining, anchored)
+                            .withCodegen()
+                            .build();
+                    for (final String source : sources(random)) {
+                        assertEquals(interpreted.extractFrom(source, context),
+                                     generated.extractFrom(source, context),
+                                     blueprint + " <- " + source);
+                    }
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testBulkExtractionWithCodegen(final boolean combinedAutomaton) throws BlueprintParseError {
+        final Extractor extractor = ExtractorBuilder.newBuilder()
+                .blueprint("org.apache.${{component:[a-z]+}}.${{node:node[0-9]+}}.${{rest}}")
+                .blueprint("${{:[a-z]+}}.${{rest}}")
+                .combinedAutomaton(combinedAutomaton)
+                .withCodegen()
+                .build();
+        assertEquals("node1", extractor.extractFrom("org.apache.kafka.node1.bytes").getExtractions().get("node"));
+        assertEquals("apache", extractor.extractFrom("com.apache").getExtractions().get("rest"));
+        assertTrue(extractor.extractFrom("42").isError());
+        assertFalse(extractor.extractFrom("a.b").isError());
+    }
+
+    @Test
+    void testCodegenForSelectedBlueprintsOnly() throws BlueprintParseError {
+        final String hot = "org.apache.${{component:[a-z]+}}.${{node:node[0-9]+}}.${{rest}}";
+        final String cold = "com.${{company:[a-z]+}}.${{rest}}";
+        final Extractor extractor = ExtractorBuilder.newBuilder()
+                .blueprint(hot)
+                .blueprint(cold)
+                .withCodegen(hot::equals)
+                .build();
+        final List<StringExtractor> stringExtractors = ((BulkStringExtractor) extractor).stringExtractors();
+        final GeneratedMatcher generated = stringExtractors.get(0).generatedMatcher();
+        assertNotNull(generated);
+        assertNull(stringExtractors.get(1).generatedMatcher());
+
+        /* generated classes live in this package, and don't need anything public to reach */
+        assertEquals(GeneratedMatcher.class.getPackage(), generated.getClass().getPackage());
+        assertFalse(Modifier.isPublic(generated.getClass().getModifiers()));
+        assertFalse(Modifier.isPublic(GeneratedMatcher.class.getModifiers()));
+        assertEquals("kafka", extractor.extractFrom("org.apache.kafka.node1.bytes").getExtractions().get("component"));
+        assertEquals("ibm", extractor.extractFrom("com.ibm.cloud").getExtractions().get("company"));
+    }
+
+    @Test
+    void testGeneratedClassesAreHiddenAndUnloadable() throws Exception {
+        final Method isHidden = isHiddenMethod();
+        Assumptions.assumeTrue(isHidden != null, "Hidden classes need Java 15+");
+        /* the extractor and its class are only reachable from within the helper */
+        final WeakReference<Class<?>> reference = generatedClass(isHidden);
+        for (int i = 0; i < 20 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+    }
+
+    private static WeakReference<Class<?>> generatedClass(final Method isHidden) throws Exception {
+        final StringExtractor extractor = (StringExtractor) ExtractorBuilder.newBuilder()
+                .blueprint("org.apache.${{component:[a-z]+}}.${{node:node[0-9]+}}")
+                .withCodegen()
+                .build();
+        assertEquals("node1", extractor.extractFrom("org.apache.kafka.node1").getExtractions().get("node"));
+        final Class<?> generated = extractor.generatedMatcher().getClass();
+        assertTrue((Boolean) isHidden.invoke(generated));
+        return new WeakReference<>(generated);
+    }
+
+    private static Method isHiddenMethod() {
+        try {
+            return Class.class.getMethod("isHidden");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static List<String> sources(final Random random) {
+        final List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final StringBuilder source = new StringBuilder();
+            final int length = 1 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                source.append(SOURCE_SEGMENTS[random.nextInt(SOURCE_SEGMENTS.length)]);
+            }
+            sources.add(source.toString());
+        }
+        return sources;
+    }
+
+    private static ExtractorBuilder builder(final String blueprint,
+                                            final boolean failOnStringRemaining,
+                                            final boolean anchored) {
+        return ExtractorBuilder.newBuilder()
+                .blueprint(blueprint)
+                .withSkippedVariable("skipped")
+                .withContextMappedVariable("context")
+                .withStaticAttachVariable("attach")
+                .failOnStringRemainingAfterExtraction(failOnStringRemaining)
+                .anchoredRegexMatching(anchored);
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ByteSourceTest {
+
+    private static final List<String> SOURCES = ImmutableList.of("org.apache.kafka.node12.bytes",
+                                                                 "org.apache.kafka.node12",
+                                                                 "org.apache.kafkä.node12.bytes",
+                                                                 "org.apache.kafka.node12.bytés",
+                                                                 "com.google.search.latency",
+                                                                 "");
+
+    private static void assertSame(final ExtractionResult expected, final ExtractionResult actual) {
+        assertEquals(expected.isError(), actual.isError());
+        assertEquals(expected.getExtractions(), actual.getExtractions());
+        assertEquals(expected.getExtractedString(), actual.getExtractedString());
+    }
+
+    @Test
+    void testBytesMatchLikeStrings() throws BlueprintParseError {
+        final Extractor extractor = ExtractorBuilder.newBuilder()
+                .blueprints(ImmutableList.of("org.apache.${{component:[a-z]+}}.${{node:node[0-9]+}}.${{rest}}",
+                                             "${{:[a-z]+}}.${{domain:\\w+}}.${{rest}}"))
+                .build();
+        for (final String source : SOURCES) {
+            final ExtractionResult expected = extractor.extractFrom(source);
+            final byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+            assertSame(expected, extractor.extractFromBytes(bytes));
+
+            /* a slice in the middle of a larger heap buffer */
+            final ByteBuffer heap = ByteBuffer.allocate(bytes.length + 8);
+            heap.position(4);
+            heap.put(bytes);
+            heap.position(4).limit(4 + bytes.length);
+            assertSame(expected, extractor.extractFromBytes(heap.slice()));
+            assertSame(expected, extractor.extractFromBytes(heap));
+            assertEquals(4, heap.position());
+
+            final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+            direct.put(bytes).flip();
+            assertSame(expected, extractor.extractFromBytes(direct));
+            assertEquals(0, direct.position());
+        }
+    }
+
+    @Test
+    void testNullSourceResolvesToString() {
+        final List<String> sources = new ArrayList<>();
+        final Extractor recording = (source, contextMap) -> {
+            sources.add(source);
+            return null;
+        };
+        recording.extractFrom(null);
+        assertEquals(Collections.singletonList(null), sources);
+    }
+
+    @Test
+    void testAsciiView() {
+        final CharSequence ascii = AsciiByteSequence.of(ByteBuffer.wrap("[org.apache]".getBytes(StandardCharsets.UTF_8),
+                                                                        1, 10));
+        assertTrue(ascii instanceof AsciiByteSequence);
+        assertEquals("org.apache", ascii.toString());
+        assertEquals("apache", ascii.subSequence(4, 10).toString());
+        assertEquals('.', ascii.charAt(3));
+
+        final CharSequence decoded = AsciiByteSequence.of(ByteBuffer.wrap("ünïcödé".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(decoded instanceof String);
+        assertEquals("ünïcödé", decoded);
+    }
+}
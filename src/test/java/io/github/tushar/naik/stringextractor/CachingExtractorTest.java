@@ -0,0 +1,97 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingExtractorTest {
+
+    @Test
+    void testRepeatedSourcesAreServedFromCache() throws BlueprintParseError {
+        final CachingExtractor extractor = (CachingExtractor) ExtractorBuilder.newBuilder()
+                .blueprints(ImmutableList.of("org.apache.kafka.${{name:[a-z]+}}.rate", "io.${{rest}}"))
+                .withResultCache(10)
+                .build();
+
+        final ExtractionResult first = extractor.extractFrom("org.apache.kafka.network.rate");
+        final ExtractionResult second = extractor.extractFrom("org.apache.kafka.network.rate");
+        assertSame(first, second);
+        TestUtils.assertMapEquals(ImmutableMap.of("name", "network"), second.getExtractions());
+        assertEquals("org.apache.kafka..rate", second.getExtractedString());
+        assertThrows(UnsupportedOperationException.class, () -> second.getExtractions().put("name", "other"));
+
+        /* misses are cached too */
+        assertTrue(extractor.extractFrom("com.unknown").isError());
+        assertTrue(extractor.extractFrom("com.unknown").isError());
+
+        final CacheStats stats = extractor.stats();
+        assertEquals(2, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(2, stats.getSize());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    void testContextDependentExtractionsBypassCache() throws BlueprintParseError {
+        final CachingExtractor extractor = (CachingExtractor) ExtractorBuilder.newBuilder()
+                .blueprint("host.${{context:dc}}.${{name}}")
+                .withContextMappedVariable("context")
+                .withResultCache(10)
+                .build();
+
+        assertEquals("host.nm5.", extractor.extractFrom("host..node3", ImmutableMap.of("dc", "nm5"))
+                .getExtractedString());
+        assertEquals("host.mh1.", extractor.extractFrom("host..node3", ImmutableMap.of("dc", "mh1"))
+                .getExtractedString());
+        assertEquals("host..", extractor.extractFrom("host..node3", Collections.emptyMap()).getExtractedString());
+
+        final CacheStats stats = extractor.stats();
+        assertEquals(2, stats.getBypassCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void testNonPositiveSizeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ExtractorBuilder.newBuilder().withResultCache(0));
+        assertThrows(IllegalArgumentException.class, () -> ExtractorBuilder.newBuilder().withResultCache(-1));
+    }
+
+    @Test
+    void testCacheIsBounded() throws Exception {
+        final CachingExtractor extractor = new CachingExtractor(new StringExtractor("metric.${{name}}"), 100);
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executorService.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        final String name = String.valueOf(i % 500);
+                        assertEquals(name, extractor.extractFrom("metric." + name).getExtractions().get("name"));
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        final CacheStats stats = extractor.stats();
+        assertTrue(stats.getSize() <= 100);
+        assertTrue(stats.getEvictionCount() > 0);
+        assertEquals(40000, stats.getHitCount() + stats.getMissCount());
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.tushar.naik.stringextractor;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CharClassMatcherTest {
+    private static final String ALPHABET = "abcxyzABZ0189._-: \t\n^\\]éü😀";
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[A-Za-z]+", "[^.]+", "[0-9]+", "[a-z0-9-]+", "[-a]*", "[a-]?", "[\\.\\-_]{2}",
+            "[0-9]{1,3}", "[a-z]{2,}", "\\d+", "\\w{3}", "\\s*", "[^.:]*", "[.]", "[a-c]{0}", "[\\]a]+", "[\\^]+"})
+    void testSameAsRegex(final String regex) {
+        final Pattern pattern = Pattern.compile(regex);
+        final CharClassMatcher charClassMatcher = CharClassMatcher.of(pattern);
+        assertNotNull(charClassMatcher);
+        final Matcher matcher = pattern.matcher("");
+        final Random random = new Random(42);
+        final int[] spans = new int[2];
+        for (int i = 0; i < 5000; i++) {
+            final StringBuilder source = new StringBuilder();
+            final int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                source.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            final int from = random.nextInt(source.length() + 1);
+            for (final boolean anchored : new boolean[]{false, true}) {
+                matcher.reset(source).region(from, source.length());
+                final boolean expected = anchored ? matcher.lookingAt() : matcher.find();
+                final String message = regex + " <- " + source + " from " + from + (anchored ? " anchored" : "");
+                assertEquals(expected, charClassMatcher.match(source, from, anchored, spans, 0), message);
+                if (expected) {
+                    assertArrayEquals(new int[]{matcher.start(), matcher.end()}, spans, message);
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[a-z]+?", "[a-z]++", "[^.]{2}", "[^.]?", "[a-z&&[^b]]+", "[\\d.]+", "[é]+", "\\S+",
+            "[a-z]+\\.", "a+", ".*", "[z-a]+", "(?i)[a-z]+", "[a-z]{,3}", "[]+", "[^]+"})
+    void testNotSimpleCharClasses(final String regex) {
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(regex);
+        } catch (Exception e) {
+            /* invalid regexes never make it this far */
+            return;
+        }
+        assertNull(CharClassMatcher.of(pattern));
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CharSequenceSourceTest {
+
+    private static final List<String> BLUEPRINTS
+            = ImmutableList.of("org.apache.${{component:[a-z]+}}.${{node:node[0-9]+}}.${{:[a-z]+}}",
+                               "com.${{domain:[a-z]+}}${{ctx:%CTX_1}}.${{rest}}",
+                               "${{:[a-z]+}}.${{rest}}");
+
+    private static final List<String> SOURCES = ImmutableList.of("org.apache.kafka.node12.bytes",
+                                                                 "org.apache.kafka.node12",
+                                                                 "com.google.search.latency",
+                                                                 "net.traffic",
+                                                                 "42");
+
+    private static void assertSameAsString(final Extractor extractor) {
+        final Map<String, String> context = ImmutableMap.of("CTX_1", "-context");
+        for (final String source : SOURCES) {
+            final ExtractionResult expected = extractor.extractFrom(source, context);
+            /* a char buffer that is a slice of a larger buffer, with a position and limit */
+            final CharBuffer slice = CharBuffer.wrap("[[" + source + "]]").slice();
+            slice.position(2).limit(2 + source.length());
+            for (final CharSequence charSequence : ImmutableList.of(new StringBuilder(source), slice.slice())) {
+                final ExtractionResult actual = extractor.extractFrom(charSequence, context);
+                assertEquals(expected.isError(), actual.isError(), source);
+                assertEquals(expected.getExtractions(), actual.getExtractions(), source);
+                assertEquals(expected.getExtractedString(), actual.getExtractedString(), source);
+            }
+        }
+    }
+
+    @Test
+    void testStringExtractor() throws BlueprintParseError {
+        for (final String blueprint : BLUEPRINTS) {
+            assertSameAsString(ExtractorBuilder.newBuilder()
+                                       .blueprint(blueprint)
+                                       .withContextMappedVariable("ctx")
+                                       .build());
+            assertSameAsString(ExtractorBuilder.newBuilder()
+                                       .blueprint(blueprint)
+                                       .withContextMappedVariable("ctx")
+                                       .anchoredRegexMatching(true)
+                                       .failOnStringRemainingAfterExtraction(true)
+                                       .build());
+        }
+    }
+
+    @Test
+    void testBulkExtractors() throws BlueprintParseError {
+        for (final boolean combinedAutomaton : new boolean[]{false, true}) {
+            assertSameAsString(ExtractorBuilder.newBuilder()
+                                       .blueprints(BLUEPRINTS)
+                                       .withContextMappedVariable("ctx")
+                                       .combinedAutomaton(combinedAutomaton)
+                                       .build());
+            assertSameAsString(ExtractorBuilder.newBuilder()
+                                       .blueprints(BLUEPRINTS)
+                                       .withContextMappedVariable("ctx")
+                                       .combinedAutomaton(combinedAutomaton)
+                                       .withNegativeMatchFilter(64)
+                                       .withResultCache(64)
+                                       .build());
+        }
+    }
+
+    @Test
+    void testMissesAreFilteredIrrespectiveOfSourceType() throws BlueprintParseError {
+        final Extractor extractor = ExtractorBuilder.newBuilder()
+                .blueprint("org.${{rest}}")
+                .withNegativeMatchFilter(64)
+                .build();
+        assertTrue(extractor.extractFrom(new StringBuilder("com.apache")).isError());
+        final MissFilter missFilter = new MissFilter(64);
+        missFilter.record(new StringBuilder("com.apache"));
+        assertTrue(missFilter.mightContain("com.apache"));
+        assertTrue(missFilter.mightContain(CharBuffer.wrap("com.apache")));
+        assertFalse(missFilter.mightContain("org.apache"));
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.tushar.naik.stringextractor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompilationContextTest {
+
+    @Test
+    void testInterning() {
+        final CompilationContext context = new CompilationContext();
+        assertSame(context.pattern("[a-z]+"), context.pattern(new String("[a-z]+")));
+        assertNotSame(context.pattern("[a-z]+"), context.pattern("[a-z]+", Pattern.CASE_INSENSITIVE));
+        assertEquals(2, context.patternCount());
+        assertSame(context.matcher(context.pattern("[a-z]+")), context.matcher(context.pattern("[a-z]+")));
+
+        final String literal = "org.apache.";
+        assertSame(literal, context.literal(literal));
+        assertSame(literal, context.literal(new String(literal)));
+        assertEquals(1, context.literalCount());
+
+        assertThrows(PatternSyntaxException.class, () -> context.pattern("[a-z"));
+        assertEquals(2, context.patternCount());
+    }
+
+    @Test
+    void testMatcherDoesNotRetainLastSource() throws InterruptedException {
+        final ReusableMatcher matcher = new ReusableMatcher(Pattern.compile("node[0-9]+"));
+        final int[] spans = new int[2];
+        String source = new StringBuilder("org.node12").toString();
+        assertEquals(10, matcher.match(source, 4, true, spans, 0));
+        assertEquals(-1, matcher.match(source, 0, true, spans, 0));
+        final WeakReference<String> reference = new WeakReference<>(source);
+        source = null;
+        for (int i = 0; i < 20 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void testBlueprintsBuiltTogetherShareMatchersAndLiterals(final int parallelism) throws BlueprintParseError {
+        final List<String> blueprints = IntStream.range(0, 1000)
+                .mapToObj(i -> "org.apache.${{component:[^.]+}}.metric" + i + ".${{name:[a-z]+}}")
+                .collect(Collectors.toList());
+        final Extractor extractor = ExtractorBuilder.newBuilder()
+                .blueprints(blueprints)
+                .compileInParallel(parallelism)
+                .build();
+        assertInstanceOf(BulkStringExtractor.class, extractor);
+        final List<StringExtractor> stringExtractors = ((BulkStringExtractor) extractor).stringExtractors();
+
+        final Instruction[] first = stringExtractors.get(0).program();
+        for (final StringExtractor stringExtractor : stringExtractors) {
+            final Instruction[] program = stringExtractor.program();
+            assertEquals(first.length, program.length);
+            /* org.apache. */
+            assertSame(first[0].getOperand(), program[0].getOperand());
+            assertSame(first[1].getMatcher(), program[1].getMatcher());
+            assertSame(first[1].getVariableName(), program[1].getVariableName());
+            assertSame(first[3].getMatcher(), program[3].getMatcher());
+        }
+        final Set<ReusableMatcher> matchers = Collections.newSetFromMap(new IdentityHashMap<>());
+        stringExtractors.stream()
+                .flatMap(stringExtractor -> Arrays.stream(stringExtractor.program()))
+                .map(Instruction::getMatcher)
+                .filter(Objects::nonNull)
+                .forEach(matchers::add);
+        assertEquals(2, matchers.size());
+    }
+}
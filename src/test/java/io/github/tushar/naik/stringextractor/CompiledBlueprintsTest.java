@@ -0,0 +1,161 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledBlueprintsTest {
+    private static final List<String> BLUEPRINTS
+            = ImmutableList.of("org.apache.${{component:[a-z]+}}.${{node:node[0-9]+}}.${{rest}}",
+                               "com.${{:(?i)[a-z]+}}${{attach:-}}${{context:host}}.${{exact:kafka}}",
+                               "org.${{skipped:[a-z]+}}.${{id:[^.]+}}.${{:bytes}}",
+                               "${{:[a-z]+}}.${{rest}}");
+    private static final List<String> SOURCES = ImmutableList.of("org.apache.kafka.node1.bytes",
+                                                                 "com.GOOGLE.kafka",
+                                                                 "org.apache.zookeeper.bytes",
+                                                                 "net.traffic",
+                                                                 "42");
+
+    private static Extractor extractor(final List<String> blueprints) throws BlueprintParseError {
+        return ExtractorBuilder.newBuilder()
+                .blueprints(blueprints)
+                .withSkippedVariable("skipped")
+                .withContextMappedVariable("context")
+                .withStaticAttachVariable("attach")
+                .failOnStringRemainingAfterExtraction(true)
+                .build();
+    }
+
+    private static void assertSameResults(final Extractor expected, final Extractor actual) {
+        final Map<String, String> context = ImmutableMap.of("host", "node3");
+        for (final String source : SOURCES) {
+            assertEquals(expected.extractFrom(source, context), actual.extractFrom(source, context), source);
+        }
+    }
+
+    @Test
+    void testRoundTripThroughFile(@TempDir final Path directory) throws Exception {
+        final Extractor original = extractor(BLUEPRINTS);
+        final Path file = directory.resolve("blueprints.bin");
+        CompiledBlueprints.write(original, file);
+        final Extractor loaded = CompiledBlueprints.load(file);
+        assertTrue(loaded instanceof BulkStringExtractor);
+        assertSameResults(original, loaded);
+    }
+
+    @Test
+    void testRoundTripThroughStream() throws Exception {
+        for (final String blueprint : BLUEPRINTS) {
+            final Extractor original = extractor(ImmutableList.of(blueprint));
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            CompiledBlueprints.write(original, output);
+            final Extractor loaded = CompiledBlueprints.load(new ByteArrayInputStream(output.toByteArray()));
+            assertTrue(loaded instanceof StringExtractor);
+            assertEquals(((StringExtractor) original).numberOfVariables(),
+                         ((StringExtractor) loaded).numberOfVariables());
+            assertSameResults(original, loaded);
+        }
+    }
+
+    @Test
+    void testInvalidInput() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CompiledBlueprints.write(extractor(BLUEPRINTS), output);
+        final byte[] bytes = output.toByteArray();
+
+        assertThrows(IOException.class, () -> CompiledBlueprints.load(
+                new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length / 2))));
+        final byte[] otherVersion = bytes.clone();
+        otherVersion[5] = 42;
+        assertThrows(IOException.class, () -> CompiledBlueprints.load(new ByteArrayInputStream(otherVersion)));
+        assertThrows(IOException.class, () -> CompiledBlueprints.load(new ByteArrayInputStream(new byte[]{1, 2, 3, 4})));
+        assertThrows(IllegalArgumentException.class,
+                     () -> CompiledBlueprints.write(new CachingExtractor(extractor(BLUEPRINTS), 10), output));
+    }
+
+    @Test
+    void testCorruptLengthsAreRejectedBeforeAllocating() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CompiledBlueprints.write(extractor(BLUEPRINTS), output);
+        final byte[] bytes = output.toByteArray();
+
+        /* blueprint count follows magic and version, the first slot name length follows the blueprint's header */
+        for (final int offset : new int[]{6, 16, 20}) {
+            for (final int value : new int[]{Integer.MAX_VALUE, -2}) {
+                final byte[] corrupt = bytes.clone();
+                ByteBuffer.wrap(corrupt).putInt(offset, value);
+                assertThrows(IOException.class, () -> CompiledBlueprints.load(new ByteArrayInputStream(corrupt)),
+                             "offset: " + offset + ", value: " + value);
+            }
+        }
+    }
+
+    @Test
+    void testInvalidRegexIsRejected() throws Exception {
+        final IOException exception = assertThrows(IOException.class, () -> CompiledBlueprints.load(
+                new ByteArrayInputStream(regexBlueprint("[a-z", 0, false))));
+        assertTrue(exception.getCause() instanceof PatternSyntaxException);
+    }
+
+    @Test
+    void testSlotsAreValidatedPerOpcode() throws Exception {
+        assertEquals("abc", CompiledBlueprints.load(new ByteArrayInputStream(regexBlueprint("[a-z]+", 0, false)))
+                .extractFrom("abc").getExtractions().get("name"));
+        /* a retained (skipped) variable isn't stored, and has no slot */
+        assertTrue(CompiledBlueprints.load(new ByteArrayInputStream(regexBlueprint("[a-z]+", -1, true)))
+                           .extractFrom("abc").getExtractions().isEmpty());
+        /* a stored variable needs a slot in the schema */
+        for (final int slot : new int[]{-1, 1, -2}) {
+            assertThrows(IOException.class, () -> CompiledBlueprints.load(
+                    new ByteArrayInputStream(regexBlueprint("[a-z]+", slot, false))), "slot: " + slot);
+        }
+    }
+
+    /* a single blueprint, that is a single regex variable named "name", with one slot in its schema */
+    private static byte[] regexBlueprint(final String regex, final int slot, final boolean retained)
+            throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(0x53584250);
+        data.writeShort(1);
+        data.writeInt(1);
+        data.writeBoolean(false);
+        data.writeBoolean(false);
+        data.writeInt(1);
+        data.writeInt(1);
+        writeString(data, "name");
+        data.writeInt(1);
+        data.writeByte(Instruction.REGEX_MATCH);
+        data.writeInt(-1);
+        writeString(data, regex);
+        data.writeInt(0);
+        writeString(data, "name");
+        data.writeInt(slot);
+        data.writeBoolean(retained);
+        data.flush();
+        return output.toByteArray();
+    }
+
+    private static void writeString(final DataOutputStream data, final String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+}
@@ -0,0 +1,164 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExtractionMetricsTest {
+
+    private static final List<String> BLUEPRINTS = ImmutableList.of(
+            "org.apache.kafka.${{node:[0-9]+}}.bytes",
+            "${{service:[a-z]+}}.latency.${{percentile:p[0-9]+}}");
+
+    @Test
+    void testCountsPerBlueprint() throws BlueprintParseError {
+        final ExtractionMetrics metrics = new ExtractionMetrics();
+        assertTrue(metrics.snapshot().isEmpty());
+        final Extractor extractor = ExtractorBuilder.newBuilder()
+                .blueprints(BLUEPRINTS)
+                .withMetrics(metrics)
+                .build();
+        assertFalse(extractor.extractFrom("org.apache.kafka.1.bytes").isError());
+        assertFalse(extractor.extractFrom("org.apache.kafka.2.bytes").isError());
+        assertFalse(extractor.extractFrom("payments.latency.p99").isError());
+        /* fails the node of the first blueprint, and the literal of the second */
+        assertTrue(extractor.extractFrom("org.apache.kafka.node.bytes").isError());
+        /* fails the percentile of the second blueprint */
+        assertTrue(extractor.extractFrom("payments.latency.max").isError());
+
+        final List<BlueprintStats> snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.size());
+
+        final BlueprintStats kafka = snapshot.get(0);
+        assertEquals(BLUEPRINTS.get(0), kafka.getBlueprint());
+        assertEquals(3, kafka.getAttemptCount());
+        assertEquals(2, kafka.getHitCount());
+        assertEquals(1, kafka.getMissCount());
+        assertEquals(ImmutableMap.of("[0] org.apache.kafka.", 0L,
+                                     "[1] ${{node:[0-9]+}}", 1L,
+                                     "[2] .bytes", 0L,
+                                     "remaining characters", 0L),
+                     kafka.getMissesByComponent());
+
+        final BlueprintStats latency = snapshot.get(1);
+        assertEquals(3, latency.getAttemptCount());
+        assertEquals(1, latency.getHitCount());
+        assertEquals(ImmutableMap.of("[0] ${{service:[a-z]+}}", 0L,
+                                     "[1] .latency.", 1L,
+                                     "[2] ${{percentile:p[0-9]+}}", 1L,
+                                     "remaining characters", 0L),
+                     latency.getMissesByComponent());
+        assertEquals(0, latency.latencySampleCount());
+        assertEquals(0, latency.latencyPercentileNanos(99));
+    }
+
+    @Test
+    void testRemainingCharacters() throws BlueprintParseError {
+        final ExtractionMetrics metrics = new ExtractionMetrics();
+        final Extractor extractor = ExtractorBuilder.newBuilder()
+                .blueprint("org.${{name:[a-z]+}}")
+                .failOnStringRemainingAfterExtraction(true)
+                .withMetrics(metrics)
+                .build();
+        assertTrue(extractor.extractFrom("org.apache.kafka").isError());
+        assertEquals(1L, metrics.snapshot(0).getMissesByComponent().get("remaining characters"));
+    }
+
+    @Test
+    void testSampledLatencies() throws BlueprintParseError {
+        final ExtractionMetrics metrics = new ExtractionMetrics(1);
+        final Extractor extractor = ExtractorBuilder.newBuilder()
+                .blueprints(BLUEPRINTS)
+                .withMetrics(metrics)
+                .build();
+        for (int i = 0; i < 100; i++) {
+            extractor.extractFrom("org.apache.kafka." + i + ".bytes");
+        }
+        final BlueprintStats kafka = metrics.snapshot(0);
+        assertEquals(100, kafka.latencySampleCount());
+        assertTrue(kafka.latencyPercentileNanos(50) > 0);
+        assertTrue(kafka.latencyPercentileNanos(99) >= kafka.latencyPercentileNanos(50));
+        assertThrows(IllegalArgumentException.class, () -> kafka.latencyPercentileNanos(101));
+    }
+
+    @Test
+    void testSingleExtractorOnly() throws BlueprintParseError {
+        final ExtractionMetrics metrics = new ExtractionMetrics();
+        final ExtractorBuilder builder = ExtractorBuilder.newBuilder()
+                .blueprints(BLUEPRINTS)
+                .withMetrics(metrics);
+        builder.build();
+        assertThrows(IllegalStateException.class, builder::build);
+        assertThrows(IllegalArgumentException.class, () -> new ExtractionMetrics(-1));
+    }
+
+    @Test
+    void testMetricsKeepFastPaths() throws BlueprintParseError {
+        final ExtractionMetrics metrics = new ExtractionMetrics(1);
+        final Extractor extractor = ExtractorBuilder.newBuilder()
+                .blueprints(BLUEPRINTS)
+                .blueprint("org.${{company:apache}}.zookeeper.${{rest}}")
+                .withCodegen()
+                .withMetrics(metrics)
+                .build();
+        final List<StringExtractor> stringExtractors = ((BulkStringExtractor) extractor).stringExtractors();
+        assertNotNull(stringExtractors.get(0).generatedMatcher());
+        assertNotNull(stringExtractors.get(1).generatedMatcher());
+
+        assertFalse(extractor.extractFrom("org.apache.kafka.1.bytes").isError());
+        assertEquals("bytes", extractor.extractFrom("org.apache.zookeeper.bytes").getExtractions().get("rest"));
+        assertTrue(extractor.extractFrom("org.apache.kafka.node.bytes").isError());
+        assertEquals(1L, metrics.snapshot(0).getMissesByComponent().get("[1] ${{node:[0-9]+}}"));
+        assertEquals(1, metrics.snapshot(0).getMissCount());
+        assertEquals(1, metrics.snapshot(2).getHitCount());
+        assertEquals(1, metrics.snapshot(2).latencySampleCount());
+    }
+
+    @Test
+    void testUnsupportedCombinationsAreRejected() {
+        assertThrows(IllegalStateException.class, () -> ExtractorBuilder.newBuilder()
+                .blueprints(BLUEPRINTS)
+                .combinedAutomaton(true)
+                .withMetrics(new ExtractionMetrics())
+                .build());
+        assertThrows(IllegalStateException.class, () -> ExtractorBuilder.newBuilder()
+                .blueprints(BLUEPRINTS)
+                .lazyCompilation(true)
+                .withMetrics(new ExtractionMetrics())
+                .build());
+        assertThrows(IllegalStateException.class, () -> ExtractorBuilder.newBuilder()
+                .blueprints(BLUEPRINTS)
+                .withMetrics(new ExtractionMetrics())
+                .buildReloadable());
+    }
+
+    @Test
+    void testDropwizardGauges() throws BlueprintParseError {
+        final ExtractionMetrics metrics = new ExtractionMetrics(1);
+        final Extractor extractor = ExtractorBuilder.newBuilder()
+                .blueprints(BLUEPRINTS)
+                .withMetrics(metrics)
+                .build();
+        final MetricRegistry registry = new MetricRegistry();
+        DropwizardMetrics.register(metrics, registry, "extractor");
+        extractor.extractFrom("payments.latency.p99");
+
+        final Gauge<?> attempts = registry.getGauges().get("extractor.blueprint.1.attempts");
+        assertEquals(1L, attempts.getValue());
+        assertEquals(1L, registry.getGauges().get("extractor.blueprint.1.hits").getValue());
+        assertEquals(0L, registry.getGauges().get("extractor.blueprint.0.attempts").getValue());
+        assertEquals(1.0, registry.getGauges().get("extractor.blueprint.1.hitRate").getValue());
+        assertTrue((Long) registry.getGauges().get("extractor.blueprint.1.latency.p99").getValue() > 0);
+        assertEquals(12, registry.getGauges().size());
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExtractionResultTest {
+
+    @Test
+    void testLazyExtractedStringIsBuiltOnce() {
+        final AtomicInteger built = new AtomicInteger();
+        final ExtractionResult lazy = ExtractionResult.lazy(ImmutableMap.of("name", "kafka"), () -> {
+            built.incrementAndGet();
+            return "org.apache.";
+        });
+        assertEquals(0, built.get());
+        assertEquals("kafka", lazy.getExtractions().get("name"));
+        assertEquals(0, built.get());
+
+        assertEquals("org.apache.", lazy.getExtractedString());
+        assertEquals("org.apache.", lazy.getExtractedString());
+        assertEquals(1, built.get());
+
+        final ExtractionResult eager = ExtractionResult.builder()
+                .extractedString("org.apache.")
+                .extractions(ImmutableMap.of("name", "kafka"))
+                .build();
+        assertEquals(eager, lazy);
+        assertEquals(eager.hashCode(), lazy.hashCode());
+        assertEquals(eager.toString(), lazy.toString());
+    }
+
+    @Test
+    void testContextIsResolvedDuringExtraction() throws BlueprintParseError {
+        final StringExtractor stringExtractor = new StringExtractor("org.${{ctx:CTX}}${{name:[a-z]+}}", '$', '{',
+                                                                    ':', '}', false, "", "ctx", "");
+        final Map<String, String> context = new HashMap<>();
+        context.put("CTX", "before.");
+        final ExtractionResult result = stringExtractor.extractFrom("org.apache", context);
+        context.put("CTX", "after.");
+        assertEquals("org.before.", result.getExtractedString());
+
+        /* a mutable source is copied from during extraction */
+        final StringBuilder source = new StringBuilder("org.apache.kafka");
+        final ExtractionResult fromBuilder = new StringExtractor("org.${{name:[a-z]+}}").extractFrom(source);
+        source.setLength(0);
+        assertEquals("org..kafka", fromBuilder.getExtractedString());
+        assertTrue(fromBuilder.getExtractions().containsKey("name"));
+    }
+}
@@ -3,7 +3,10 @@ package io.github.tushar.naik.stringextractor;
 import com.google.common.collect.ImmutableMap;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -81,4 +84,48 @@ class ExtractorBuilderTest {
         assertEquals(BlueprintParseErrorCode.INCORRECT_BUILDER_USAGE,
                      blueprintParseError.getBlueprintParseErrorCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testParallelCompilationIsSameAsSequential() throws BlueprintParseError {
+        final List<String> blueprints = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            blueprints.add("org.apache.service" + i + ".${{component:[a-z]+}}.${{node:node[0-9]+}}.${{rest}}");
+        }
+        blueprints.add("${{:[a-z]+}}.${{rest}}");
+        final Extractor sequential = ExtractorBuilder.newBuilder().blueprints(blueprints).build();
+        final Extractor parallel = ExtractorBuilder.newBuilder().blueprints(blueprints).compileInParallel(4).build();
+        final ForkJoinPool pool = new ForkJoinPool(3);
+        final Extractor onPool;
+        try {
+            onPool = ExtractorBuilder.newBuilder().blueprints(blueprints).compileInParallel(pool).build();
+        } finally {
+            pool.shutdown();
+        }
+        for (final String source : new String[]{"org.apache.service1999.kafka.node2.bytes",
+                "org.apache.service7.kafka.node2.bytes", "org.apache.kafka", "com.google", "42"}) {
+            assertEquals(sequential.extractFrom(source), parallel.extractFrom(source));
+            assertEquals(sequential.extractFrom(source), onPool.extractFrom(source));
+        }
+    }
+
+    @Test
+    void testAllParseErrorsAreReported() {
+        final List<String> blueprints = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            blueprints.add(i % 10 == 3 ? "broken" + i + ".${{name" : "fine" + i + ".${{name:[a-z]+}}");
+        }
+        blueprints.add("${{}}");
+        for (final int parallelism : new int[]{1, 4}) {
+            final BlueprintParseError error = assertThrows(BlueprintParseError.class, () -> ExtractorBuilder.newBuilder()
+                    .blueprints(blueprints)
+                    .compileInParallel(parallelism)
+                    .build());
+            assertEquals(BlueprintParseErrorCode.VARIABLE_NOT_CLOSED, error.getBlueprintParseErrorCode());
+            assertEquals("broken3.${{name", error.getBlueprint());
+            assertEquals(10, error.getSuppressed().length);
+            assertEquals("broken93.${{name", ((BlueprintParseError) error.getSuppressed()[8]).getBlueprint());
+            assertEquals(BlueprintParseErrorCode.EMPTY_VARIABLE_REGEX,
+                         ((BlueprintParseError) error.getSuppressed()[9]).getBlueprintParseErrorCode());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FixedOffsetMatcherTest {
+
+    private static final List<String> BLUEPRINTS = ImmutableList.of("org.apache.kafka",
+                                                                    "org.${{component:apache}}.${{rest}}",
+                                                                    "org.${{:apache}}${{attach:.}}${{last}}",
+                                                                    "${{ctx:CTX}}org.${{skipped:apache}}.${{rest}}",
+                                                                    "${{rest}}",
+                                                                    "org.${{name:apache}}.${{name:kafka}}");
+
+    private static final List<String> SOURCES = ImmutableList.of("org.apache.kafka",
+                                                                 "org.apache.kafka.bytes",
+                                                                 "org.apache.",
+                                                                 "org.apache",
+                                                                 "org.apachekafka",
+                                                                 "com.apache.kafka",
+                                                                 "org",
+                                                                 "");
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testSameAsGenericMatching(final boolean failOnStringRemaining) throws BlueprintParseError {
+        final Map<String, String> context = ImmutableMap.of("CTX", "context.");
+        for (final String blueprint : BLUEPRINTS) {
+            final StringExtractor stringExtractor = new StringExtractor(blueprint, '$', '{', ':', '}',
+                                                                        failOnStringRemaining, "skipped", "ctx",
+                                                                        "attach");
+            assertNotNull(FixedOffsetMatcher.compile(stringExtractor.program(), failOnStringRemaining));
+            for (final String source : SOURCES) {
+                final int[] spans = new int[2 * stringExtractor.stepCount()];
+                final ExtractionResult expected = stringExtractor.match(source, spans)
+                                                  ? stringExtractor.materialize(source, context, spans)
+                                                  : ExtractionResult.error();
+                final ExtractionResult actual = stringExtractor.extractFrom(source, context);
+                final String message = blueprint + " <- " + source;
+                assertEquals(expected.isError(), actual.isError(), message);
+                assertEquals(expected.getExtractions(), actual.getExtractions(), message);
+                assertEquals(expected.getExtractedString(), actual.getExtractedString(), message);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"org.${{name:[a-z]+}}", "org.${{:[a-z]+}}.${{rest}}"})
+    void testRegexBlueprintsAreNotFixed(final String blueprint) throws BlueprintParseError {
+        assertNull(FixedOffsetMatcher.compile(new StringExtractor(blueprint).program(), false));
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyCompilationTest {
+
+    private static final List<String> BLUEPRINTS = ImmutableList.of(
+            "org.apache.kafka.${{node:[0-9]+}}.bytes",
+            "org.apache.kafka.${{node:[0-9]+}}.${{metric:[a-z]+}}",
+            "${{ctx:region}}.${{host:[a-z]+}}.cpu",
+            "${{service:[a-z]+}}.latency.${{percentile:p[0-9]+}}",
+            "com.${{company:[a-z]+}}.${{:[0-9]+}}.${{product:.*}}",
+            "very.long.literal.that.nothing.else.reaches.${{id:[0-9]+}}");
+
+    private static ExtractorBuilder builder() {
+        return ExtractorBuilder.newBuilder()
+                .blueprints(BLUEPRINTS)
+                .withContextMappedVariable("ctx")
+                .withSkippedVariable("");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "org.apache.kafka.12.bytes",
+            "org.apache.kafka.12.records",
+            "org.apache.kafka.12.13",
+            "india.host.cpu",
+            "payments.latency.p99",
+            "com.ibm.123.cloud.nine",
+            "very.long.literal.that.nothing.else.reaches.7",
+            "very.long",
+            "",
+    })
+    void testSameResultsAsEagerCompilation(final String source) throws BlueprintParseError {
+        final Extractor eager = builder().build();
+        final Extractor lazy = builder().lazyCompilation(true).build();
+        final ImmutableMap<String, String> context = ImmutableMap.of("region", "asia");
+        final ExtractionResult expected = eager.extractFrom(source, context);
+        final ExtractionResult actual = lazy.extractFrom(source, context);
+        assertEquals(expected.isError(), actual.isError());
+        if (!expected.isError()) {
+            assertEquals(expected.getExtractedString(), actual.getExtractedString());
+            TestUtils.assertMapEquals(expected.getExtractions(), actual.getExtractions());
+        }
+    }
+
+    @Test
+    void testOnlyReachedBlueprintsAreCompiled() throws BlueprintParseError {
+        final Extractor extractor = builder().lazyCompilation(true).build();
+        assertInstanceOf(LazyBulkStringExtractor.class, extractor);
+        final LazyBulkStringExtractor lazy = (LazyBulkStringExtractor) extractor;
+        assertEquals(0, lazy.compiledCount());
+
+        /* only the first blueprint is reached, the rest are either not prefixed by the source, or need longer ones */
+        assertTrue(!lazy.extractFrom("org.apache.kafka.1.bytes").isError());
+        assertEquals(1, lazy.compiledCount());
+
+        /* compiled blueprints are reused */
+        assertTrue(!lazy.extractFrom("org.apache.kafka.2.bytes").isError());
+        assertEquals(1, lazy.compiledCount());
+    }
+
+    @Test
+    void testUnparseableBlueprintFailsOnFirstUse() throws BlueprintParseError {
+        final Extractor extractor = ExtractorBuilder.newBuilder()
+                .blueprint("org.${{node:[0-9]+}}.bytes")
+                .blueprint("com.${{broken")
+                .lazyCompilation(true)
+                .build();
+        assertEquals(ImmutableMap.of("node", "1"), extractor.extractFrom("org.1.bytes").getExtractions());
+        final IllegalStateException error = assertThrows(IllegalStateException.class,
+                                                         () -> extractor.extractFrom("com.something"));
+        assertInstanceOf(BlueprintParseError.class, error.getCause());
+        assertThrows(IllegalStateException.class, () -> extractor.extractFrom("com.something"));
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MissFilteringExtractorTest {
+
+    @Test
+    void testKnownMissesAreShortCircuited() throws BlueprintParseError {
+        final StringExtractor stringExtractor = new StringExtractor("org.apache.${{name:[a-z]+}}");
+        final AtomicInteger delegated = new AtomicInteger();
+        final Extractor extractor = new MissFilteringExtractor((source, contextMap) -> {
+            delegated.incrementAndGet();
+            return stringExtractor.extractFrom(source, contextMap);
+        }, 64);
+
+        assertTrue(extractor.extractFrom("com.apache.kafka").isError());
+        assertTrue(extractor.extractFrom("com.apache.kafka").isError());
+        assertTrue(extractor.extractFrom("com.apache.kafka", ImmutableMap.of("a", "b")).isError());
+        assertEquals(1, delegated.get());
+
+        /* matches are never remembered */
+        assertFalse(extractor.extractFrom("org.apache.kafka").isError());
+        assertFalse(extractor.extractFrom("org.apache.kafka").isError());
+        assertEquals(3, delegated.get());
+    }
+
+    @Test
+    void testFilterOnlyReportsRecordedSources() {
+        final MissFilter missFilter = new MissFilter(4096);
+        for (int i = 0; i < 1000; i++) {
+            missFilter.record("miss." + i);
+        }
+        int retained = 0;
+        for (int i = 0; i < 1000; i++) {
+            retained += missFilter.mightContain("miss." + i) ? 1 : 0;
+        }
+        /* a full bucket may push out an older miss, but most of them have to be there */
+        assertTrue(retained > 950, "retained: " + retained);
+        for (int i = 0; i < 100000; i++) {
+            assertFalse(missFilter.mightContain("hit." + i));
+        }
+    }
+
+    @Test
+    void testFilterIsResetOnceCapacityIsChurned() {
+        final MissFilter missFilter = new MissFilter(1024);
+        assertEquals(1024, missFilter.capacity());
+        missFilter.record("miss.first");
+        for (int i = 1; i < 1024; i++) {
+            missFilter.record("miss." + i);
+        }
+        assertTrue(missFilter.mightContain("miss.first"));
+        missFilter.record("miss.last");
+        assertFalse(missFilter.mightContain("miss.first"));
+        assertTrue(missFilter.mightContain("miss.last"));
+    }
+
+    @Test
+    void testNonPositiveCapacityIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ExtractorBuilder.newBuilder().withNegativeMatchFilter(0));
+        assertThrows(IllegalArgumentException.class, () -> ExtractorBuilder.newBuilder().withNegativeMatchFilter(-1));
+    }
+
+    @Test
+    void testBuilderWiresFilter() throws BlueprintParseError {
+        final Extractor extractor = ExtractorBuilder.newBuilder()
+                .blueprint("org.apache.${{name:[a-z]+}}")
+                .withNegativeMatchFilter(1000)
+                .build();
+        assertTrue(extractor instanceof MissFilteringExtractor);
+        assertTrue(extractor.extractFrom("com.apache").isError());
+        assertEquals("kafka", extractor.extractFrom("org.apache.kafka").getExtractions().get("name"));
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReloadableExtractorTest {
+
+    private static final String KAFKA = "org.apache.kafka.${{node:[0-9]+}}.bytes";
+    private static final String CPU = "${{host:[a-z]+}}.cpu.${{core:[0-9]+}}";
+    private static final String LATENCY = "${{service:[a-z]+}}.latency.${{percentile:p[0-9]+}}";
+
+    @Test
+    void testReloadReusesUnchangedBlueprints() throws BlueprintParseError {
+        final ReloadableExtractor extractor = ExtractorBuilder.newBuilder()
+                .blueprint(KAFKA)
+                .blueprint(CPU)
+                .buildReloadable();
+        assertEquals(ImmutableMap.of("host", "web", "core", "1"),
+                     extractor.extractFrom("web.cpu.1").getExtractions());
+        assertTrue(extractor.extractFrom("payments.latency.p99").isError());
+
+        assertEquals(1, extractor.reload(ImmutableList.of(KAFKA, LATENCY)));
+        assertEquals(ImmutableList.of(KAFKA, LATENCY), extractor.blueprints());
+        assertTrue(extractor.extractFrom("web.cpu.1").isError());
+        assertEquals(ImmutableMap.of("service", "payments", "percentile", "p99"),
+                     extractor.extractFrom("payments.latency.p99").getExtractions());
+        assertEquals(ImmutableMap.of("node", "12"),
+                     extractor.extractFrom("org.apache.kafka.12.bytes").getExtractions());
+
+        /* nothing new to compile */
+        assertEquals(0, extractor.reload(ImmutableList.of(LATENCY)));
+        assertTrue(extractor.extractFrom("org.apache.kafka.12.bytes").isError());
+    }
+
+    @Test
+    void testFailedReloadKeepsPreviousBlueprints() throws BlueprintParseError {
+        final ReloadableExtractor extractor = ExtractorBuilder.newBuilder()
+                .blueprint(KAFKA)
+                .buildReloadable();
+        final List<String> broken = ImmutableList.of(CPU, "com.${{broken", "org.${{also");
+        final BlueprintParseError error = assertThrows(BlueprintParseError.class, () -> extractor.reload(broken));
+        assertEquals("com.${{broken", error.getBlueprint());
+        assertEquals(1, error.getSuppressed().length);
+        assertEquals(ImmutableList.of(KAFKA), extractor.blueprints());
+        assertFalse(extractor.extractFrom("org.apache.kafka.12.bytes").isError());
+        assertThrows(BlueprintParseError.class, () -> extractor.reload(ImmutableList.of()));
+    }
+
+    @Test
+    void testExtractionsDuringReloads() throws Exception {
+        final ReloadableExtractor extractor = ExtractorBuilder.newBuilder()
+                .blueprint(KAFKA)
+                .blueprint(CPU)
+                .withResultCache(16)
+                .buildReloadable();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<Integer> readers = executor.submit(() -> {
+                int extractions = 0;
+                while (running.get() || extractions == 0) {
+                    /* kafka stays through every reload */
+                    assertEquals(ImmutableMap.of("node", "1"),
+                                 extractor.extractFrom("org.apache.kafka.1.bytes").getExtractions());
+                    extractions++;
+                }
+                return extractions;
+            });
+            for (int i = 0; i < 100; i++) {
+                extractor.reload(i % 2 == 0 ? ImmutableList.of(LATENCY, KAFKA) : ImmutableList.of(KAFKA, CPU));
+            }
+            running.set(false);
+            assertTrue(readers.get() > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testStatsAccumulateAcrossReloads() throws BlueprintParseError {
+        final ReloadableExtractor extractor = ExtractorBuilder.newBuilder()
+                .blueprint(KAFKA)
+                .blueprint(CPU)
+                .withResultCache(16)
+                .withNegativeMatchFilter(16)
+                .buildReloadable();
+        for (int i = 0; i < 3; i++) {
+            extractor.extractFrom("org.apache.kafka.1.bytes");
+            extractor.extractFrom("com.miss");
+        }
+        extractor.reload(ImmutableList.of(KAFKA, LATENCY));
+        /* the cache starts cold after a reload */
+        extractor.extractFrom("org.apache.kafka.1.bytes");
+
+        final CacheStats stats = extractor.cacheStats();
+        assertEquals(4, stats.getHitCount());
+        assertEquals(3, stats.getMissCount());
+        assertEquals(1, stats.getSize());
+        /* misses are cached too, so the filter is only reached by the first one */
+        assertEquals(0, extractor.negativeMatchFilterHitCount());
+
+        final ReloadableExtractor plain = ExtractorBuilder.newBuilder()
+                .blueprint(KAFKA)
+                .buildReloadable();
+        assertThrows(IllegalStateException.class, plain::cacheStats);
+        assertThrows(IllegalStateException.class, plain::negativeMatchFilterHitCount);
+    }
+
+    @Test
+    void testNegativeMatchFilterHitsAccumulateAcrossReloads() throws BlueprintParseError {
+        final ReloadableExtractor extractor = ExtractorBuilder.newBuilder()
+                .blueprint(KAFKA)
+                .blueprint(CPU)
+                .withNegativeMatchFilter(16)
+                .buildReloadable();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(extractor.extractFrom("com.miss").isError());
+        }
+        extractor.reload(ImmutableList.of(KAFKA, LATENCY));
+        assertTrue(extractor.extractFrom("com.miss").isError());
+        assertTrue(extractor.extractFrom("com.miss").isError());
+        assertEquals(3, extractor.negativeMatchFilterHitCount());
+    }
+}
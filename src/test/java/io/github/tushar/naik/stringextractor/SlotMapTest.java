@@ -0,0 +1,45 @@
+package io.github.tushar.naik.stringextractor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotMapTest {
+
+    @Test
+    void testMapView() {
+        final ExtractionSchema schema = new ExtractionSchema(ImmutableList.of("component", "node", "rest"));
+        final Map<String, Object> extractions = new SlotMap(schema, new Object[]{"kafka", null, "bytes"});
+
+        assertEquals(2, extractions.size());
+        assertEquals("kafka", extractions.get("component"));
+        assertTrue(extractions.containsKey("rest"));
+        assertFalse(extractions.containsKey("node"));
+        assertFalse(extractions.containsKey("unknown"));
+        assertNull(extractions.get(null));
+        assertEquals(ImmutableMap.of("component", "kafka", "rest", "bytes"), extractions);
+        assertEquals(ImmutableMap.of("component", "kafka", "rest", "bytes").hashCode(), extractions.hashCode());
+        assertEquals(ImmutableMap.of("component", "kafka", "rest", "bytes"), new HashMap<>(extractions));
+        assertThrows(UnsupportedOperationException.class, () -> extractions.put("node", "node1"));
+        assertThrows(UnsupportedOperationException.class, () -> extractions.remove("rest"));
+    }
+
+    @Test
+    void testRepeatedVariableKeepsLastValue() throws BlueprintParseError {
+        final StringExtractor stringExtractor
+                = new StringExtractor("${{name:[a-z]+}}.${{name:[0-9]+}}.${{id:node}}.${{rest}}");
+        final ExtractionResult result = stringExtractor.extractFrom("kafka.42.node.bytes");
+        TestUtils.assertMapEquals(ImmutableMap.of("name", "42", "id", "node", "rest", "bytes"),
+                                  result.getExtractions());
+        assertThrows(UnsupportedOperationException.class, () -> result.getExtractions().clear());
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.tushar.naik.stringextractor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingExtractionTest {
+
+    private static Extractor extractor() throws BlueprintParseError {
+        return new StringExtractor("org.apache.${{component:[a-z]+}}.${{rest}}");
+    }
+
+    @Test
+    void testReaderAndInputStream() throws Exception {
+        final String content = "org.apache.kafka.bytes\r\ncom.miss\n\norg.apache.zookeeper.latency\n";
+        final List<String> lines = new ArrayList<>();
+        final List<ExtractionResult> results = new ArrayList<>();
+        StreamingExtraction.extractLines(extractor(), new StringReader(content), (line, result) -> {
+            lines.add(line);
+            results.add(result);
+        });
+        StreamingExtraction.extractLines(extractor(),
+                                         new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                                         StandardCharsets.UTF_8,
+                                         (line, result) -> {
+                                             lines.add(line);
+                                             results.add(result);
+                                         });
+        assertEquals(8, lines.size());
+        for (int i = 0; i < 8; i += 4) {
+            assertEquals("org.apache.kafka.bytes", lines.get(i));
+            assertEquals("kafka", results.get(i).getExtractions().get("component"));
+            assertTrue(results.get(i + 1).isError());
+            assertEquals("", lines.get(i + 2));
+            assertEquals("latency", results.get(i + 3).getExtractions().get("rest"));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void testFileSplitAtLineBoundaries(final int parallelism, @TempDir final Path directory) throws Exception {
+        /* large enough to be split into several chunks, with multi byte characters and a line without a newline */
+        final Path file = directory.resolve("sources.txt");
+        final StringBuilder content = new StringBuilder();
+        final int count = 200_000;
+        for (int i = 0; i < count; i++) {
+            content.append(i % 5 == 0 ? "com.miss." + i : "org.apache.kafka.node" + i + ".ünïcödé");
+            if (i + 1 < count) {
+                content.append(i % 7 == 0 ? "\r\n" : "\n");
+            }
+        }
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+        assertTrue(Files.size(file) > (1 << 22));
+
+        final Map<String, ExtractionResult> results = new ConcurrentHashMap<>();
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        StreamingExtraction.extractLines(extractor(), file, parallelism, (line, result) -> {
+            assertFalse(results.containsKey(line), line);
+            results.put(line, result);
+            order.add(line);
+        });
+        assertEquals(count, results.size());
+        for (int i = 0; i < count; i++) {
+            final String line = i % 5 == 0 ? "com.miss." + i : "org.apache.kafka.node" + i + ".ünïcödé";
+            final ExtractionResult result = results.get(line);
+            assertEquals(i % 5 == 0, result.isError(), line);
+            if (i % 5 != 0) {
+                assertEquals("node" + i + ".ünïcödé", result.getExtractions().get("rest"));
+            }
+        }
+        if (parallelism == 1) {
+            assertEquals("com.miss.0", order.get(0));
+            assertEquals("org.apache.kafka.node199999.ünïcödé", order.get(count - 1));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void testFileAndReaderSplitLinesAlike(final int parallelism, @TempDir final Path directory) throws Exception {
+        /* every kind of line terminator, with a \r\n straddling the first chunk boundary, and a trailing bare \r */
+        final String[] terminators = {"\n", "\r", "\r\n", "\r\r\n", "\n\r"};
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; content.length() < (1 << 20) - 64; i++) {
+            content.append("org.apache.kafka.node").append(i).append(terminators[i % terminators.length]);
+        }
+        while (content.length() < (1 << 20) - 1) {
+            content.append('x');
+        }
+        content.append("\r\n");
+        for (int i = 0; content.length() < 3 << 20; i++) {
+            content.append(i % 3 == 0 ? "com.miss." : "org.apache.zookeeper.node").append(i)
+                    .append(terminators[i % terminators.length]);
+        }
+        content.append("org.apache.kafka.last\r");
+        final Path file = directory.resolve("sources.txt");
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        final List<String> fromReader = new ArrayList<>();
+        StreamingExtraction.extractLines(extractor(), new StringReader(content.toString()),
+                                         (line, result) -> fromReader.add(line));
+        final List<String> fromFile = Collections.synchronizedList(new ArrayList<>());
+        StreamingExtraction.extractLines(extractor(), file, parallelism, (line, result) -> fromFile.add(line));
+        if (parallelism > 1) {
+            Collections.sort(fromReader);
+            Collections.sort(fromFile);
+        }
+        assertEquals(fromReader, fromFile);
+    }
+
+    @Test
+    void testEmptyFile(@TempDir final Path directory) throws IOException, BlueprintParseError {
+        final Path file = Files.createFile(directory.resolve("empty.txt"));
+        final List<String> lines = new ArrayList<>();
+        StreamingExtraction.extractLines(extractor(), file, 2, (line, result) -> lines.add(line));
+        assertTrue(lines.isEmpty());
+    }
+}
@@ -27,12 +27,13 @@ import java.util.stream.Stream;
 @Slf4j
 class StringExtractorPerfTest {
 
+    /* a smoke test only: times are printed, but not asserted on, since wall clock time without warmup or fork
+    isolation depends on the machine; the JMH benchmarks under benchmarks/ are where performance is measured */
     @ParameterizedTest
     @MethodSource("evaluations")
     void perfTest(final int numberOfEvaluations,
                   final String blueprint,
-                  final String source,
-                  final int maxEvalTimeExpected) throws BlueprintParseError {
+                  final String source) throws BlueprintParseError {
         PerformanceEvaluator performanceEvaluator = new PerformanceEvaluator();
         final StringExtractor stringExtractor = new StringExtractor(blueprint);
         float evaluationTime = performanceEvaluator
@@ -40,7 +41,7 @@ class StringExtractorPerfTest {
         System.out.printf("%s evaluations for blueprint with %d variables took %fms\n", numberOfEvaluations,
                           stringExtractor.numberOfVariables(),
                           evaluationTime);
-        Assertions.assertTrue(evaluationTime < maxEvalTimeExpected);
+        Assertions.assertNotNull(stringExtractor.extractFrom(source));
     }
 
 //    @ParameterizedTest
@@ -63,49 +64,40 @@ class StringExtractorPerfTest {
         return Stream.of(
                 Arguments.of(100000,
                              "A ${{what:[A-Za-z]+}}",
-                             "A successful",
-                             1000),
+                             "A successful"),
                 Arguments.of(100000,
                              "A ${{what:[A-Za-z]+}} ${{who:[A-Za-z]+}}",
-                             "A successful man ",
-                             1000),
+                             "A successful man "),
                 Arguments.of(100000,
                              "A ${{what:[A-Za-z]+}} ${{who:[A-Za-z]+}} is ${{one:[A-Za-z]+}}",
-                             "A successful man is one",
-                             1000),
+                             "A successful man is one"),
                 Arguments.of(100000,
                              "A ${{what:[A-Za-z]+}} ${{who:[A-Za-z]+}} is ${{one:[A-Za-z]+}} who can "
                                      + "${{where:[A-Za-z]+}}",
-                             "A successful man is one who can lay",
-                             1000),
+                             "A successful man is one who can lay"),
                 Arguments.of(100000,
                              "A ${{what:[A-Za-z]+}} ${{who:[A-Za-z]+}} is ${{one:[A-Za-z]+}} who can "
                                      + "${{where:[A-Za-z]+}} a ${{what2:[A-Za-z]+ [A-Za-z]+}}",
-                             "A successful man is one who can lay a firm foundation",
-                             1000),
+                             "A successful man is one who can lay a firm foundation"),
                 Arguments.of(100000,
                              "A ${{what:[A-Za-z]+}} ${{who:[A-Za-z]+}} is ${{one:[A-Za-z]+}} who can "
                                      + "${{where:[A-Za-z]+}} a ${{what2:[A-Za-z]+ [A-Za-z]+}} with the "
                                      + "${{what3:[A-Za-z]+}}",
-                             "A successful man is one who can lay a firm foundation with the bricks",
-                             1000),
+                             "A successful man is one who can lay a firm foundation with the bricks"),
                 Arguments.of(100000,
                              "A ${{what:[A-Za-z]+}} ${{who:[A-Za-z]+}} is ${{one:[A-Za-z]+}} who can "
                                      + "${{where:[A-Za-z]+}} a ${{what2:[A-Za-z]+ [A-Za-z]+}} with the "
                                      + "${{what3:[A-Za-z]+}} others have thrown at ${{whom:[A-Za-z]+ [A-Za-z]+}}",
                              "A successful man is one who can lay a firm foundation with the bricks others have "
-                                     + "thrown at him",
-                             1000),
+                                     + "thrown at him"),
                 Arguments.of(100000,
                              "com.phonepe.drove.executor.containers.${{skipped:[^.]+}}.${{:instance.}}${{instance:[^.]+}}${{:.}}",
-                             "com.phonepe.drove.executor.containers.gandalf.instance.ea2c2e4d-0d96-4039-bae9-74ff12ce1cb6.network_rx_bytes.field.value",
-                             1000),
+                             "com.phonepe.drove.executor.containers.gandalf.instance.ea2c2e4d-0d96-4039-bae9-74ff12ce1cb6.network_rx_bytes.field.value"),
 
                 /* no regex - should be really fast */
                 Arguments.of(100000,
                              "org.apache.kafka.common.metrics.kafka-sink_${{host:}}",
-                             "org.apache.kafka.common.metrics.kafka-sink_prd-001.org.dc.node3",
-                             200)
+                             "org.apache.kafka.common.metrics.kafka-sink_prd-001.org.dc.node3")
                         );
     }
 
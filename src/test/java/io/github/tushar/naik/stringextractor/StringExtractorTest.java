@@ -244,6 +244,13 @@ class StringExtractorTest {
                 Arguments.of("This is ${{name: more text", BlueprintParseErrorCode.VARIABLE_NOT_CLOSED));
     }
 
+    public static Stream<Arguments> unanchoredOnlyMatches() {
+        return Stream.of(
+                Arguments.of("${{blue:[A-Za-z]+}}", " is who", ImmutableMap.of("blue", "is")),
+                Arguments.of("This is ${{:[0-9]+}}${{rest}}", "This is number 42", ImmutableMap.of("rest", "mber 42"))
+                        );
+    }
+
     public static Stream<Arguments> noMatchBlueprints() {
         return Stream.of(
                 Arguments.of("This is ${{variable:[A-Za-z]+}}", "This is some shit"),
@@ -271,6 +278,44 @@ class StringExtractorTest {
         assertFalse(extractionResult.isError());
     }
 
+    @ParameterizedTest
+    @MethodSource("happyScenarioBlueprints")
+    void testHappyScenariosWithAnchoredRegexMatching(final String blueprint,
+                                                    final String source,
+                                                    final Map<String, String> context,
+                                                    final String result,
+                                                    final Map<String, Object> extractedMap)
+            throws BlueprintParseError {
+        final Extractor stringExtractor =
+                ExtractorBuilder.newBuilder().blueprint(blueprint)
+                        .withSkippedVariable("skipped")
+                        .withContextMappedVariable("context")
+                        .withStaticAttachVariable("attach")
+                        .anchoredRegexMatching(true)
+                        .build();
+        final ExtractionResult extractionResult = stringExtractor.extractFrom(source, context);
+        assertEquals(result, extractionResult.getExtractedString());
+        TestUtils.assertMapEquals(extractedMap, extractionResult.getExtractions());
+        assertFalse(extractionResult.isError());
+    }
+
+    @ParameterizedTest
+    @MethodSource("unanchoredOnlyMatches")
+    void testAnchoredRegexMatching(final String blueprint,
+                                   final String source,
+                                   final Map<String, Object> unanchoredExtractions) throws BlueprintParseError {
+        final ExtractionResult unanchored = ExtractorBuilder.newBuilder().blueprint(blueprint).build()
+                .extractFrom(source);
+        assertFalse(unanchored.isError());
+        TestUtils.assertMapEquals(unanchoredExtractions, unanchored.getExtractions());
+
+        final ExtractionResult anchored = ExtractorBuilder.newBuilder().blueprint(blueprint)
+                .anchoredRegexMatching(true)
+                .build()
+                .extractFrom(source);
+        assertTrue(anchored.isError());
+    }
+
     @ParameterizedTest
     @MethodSource("exceptionScenarioBlueprints")
     void testExtractorParseException(final String blueprint,